@@ -0,0 +1,102 @@
+package io.geekya215.peco.bench;
+
+import io.geekya215.peco.CharClass;
+import io.geekya215.peco.Parser;
+import io.geekya215.peco.Result;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.geekya215.peco.Combinator.*;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombinatorBenchmark {
+    private static final int SIZE = 4096;
+
+    private final Parser<Character> satisfyParser = satisfy(c -> c == 'a', "a");
+    private final Parser<String> stringParser = string("abcdefgh");
+    private final Parser<List<Character>> manyParser = many(character('a'));
+    private final Parser<List<CharSequence>> sepByParser = sepBy(takeWhile1(CharClass.DIGIT, "digits"), character(','));
+    private final Parser<String> choiceParser = choice(List.of(string("alpha"), string("beta"), string("gamma"), string("delta")));
+    private final Parser<Integer> bindParser = chainOfBinds(16);
+
+    private String single;
+    private String literal;
+    private String repeated;
+    private String separated;
+    private String alternative;
+    private String chained;
+
+    @Setup
+    public void setup() {
+        single = "a";
+        literal = "abcdefgh";
+        repeated = "a".repeat(SIZE);
+        var sb = new StringBuilder();
+        for (var i = 0; i < SIZE / 4; i++) {
+            sb.append(i > 0 ? "," : "").append(i % 1000);
+        }
+        separated = sb.toString();
+        alternative = "delta";
+        chained = "x".repeat(16);
+    }
+
+    private static Parser<Integer> chainOfBinds(int depth) {
+        Parser<Integer> parser = pure(0);
+        for (var i = 0; i < depth; i++) {
+            parser = bind(n -> map(__ -> n + 1, character('x')), parser);
+        }
+        return parser;
+    }
+
+    @Benchmark
+    public Result<?> satisfyChar(ParsedBytes parsed) {
+        parsed.bytes += single.length();
+        return run(satisfyParser, single);
+    }
+
+    @Benchmark
+    public Result<?> stringLiteral(ParsedBytes parsed) {
+        parsed.bytes += literal.length();
+        return run(stringParser, literal);
+    }
+
+    @Benchmark
+    public Result<?> manyChars(ParsedBytes parsed) {
+        parsed.bytes += repeated.length();
+        return run(manyParser, repeated);
+    }
+
+    @Benchmark
+    public Result<?> sepByNumbers(ParsedBytes parsed) {
+        parsed.bytes += separated.length();
+        return run(sepByParser, separated);
+    }
+
+    @Benchmark
+    public Result<?> choiceOfLiterals(ParsedBytes parsed) {
+        parsed.bytes += alternative.length();
+        return run(choiceParser, alternative);
+    }
+
+    @Benchmark
+    public Result<?> bindChain(ParsedBytes parsed) {
+        parsed.bytes += chained.length();
+        return run(bindParser, chained);
+    }
+}
@@ -0,0 +1,87 @@
+package io.geekya215.peco.bench;
+
+import io.geekya215.peco.Result;
+import io.geekya215.peco.json.Json;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.geekya215.peco.Combinator.run;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xss16m")
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+    @Param({"small-object", "large-array", "deep-nesting", "string-heavy", "number-heavy"})
+    public String document;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        text = switch (document) {
+            case "small-object" -> smallObject(0);
+            case "large-array" -> largeArray();
+            case "deep-nesting" -> deepNesting();
+            case "string-heavy" -> stringHeavy();
+            case "number-heavy" -> numberHeavy();
+            default -> throw new IllegalArgumentException("unknown document " + document);
+        };
+    }
+
+    @Benchmark
+    public Result<?> parse(ParsedBytes parsed) {
+        parsed.bytes += text.length();
+        return run(Json.jValue, text);
+    }
+
+    private static String smallObject(int i) {
+        return "{\"id\": " + i + ", \"name\": \"item " + i + "\", \"active\": " + (i % 2 == 0)
+            + ", \"score\": " + (i * 0.25) + ", \"tags\": [\"a\", \"b\"], \"parent\": null}";
+    }
+
+    private static String largeArray() {
+        var sb = new StringBuilder("[");
+        for (var i = 0; i < 1000; i++) {
+            sb.append(i > 0 ? ", " : "").append(smallObject(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String deepNesting() {
+        var depth = 500;
+        return "[{\"a\": ".repeat(depth) + "1" + "}]".repeat(depth);
+    }
+
+    private static String stringHeavy() {
+        var sb = new StringBuilder("[");
+        for (var i = 0; i < 500; i++) {
+            sb.append(i > 0 ? ", " : "")
+                .append("\"Lorem ipsum dolor sit amet, consectetur adipiscing elit ")
+                .append(i)
+                .append(" \\\"quoted\\\" \\u00e9\\n\"");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String numberHeavy() {
+        var sb = new StringBuilder("[");
+        for (var i = 0; i < 5000; i++) {
+            sb.append(i > 0 ? ", " : "").append(i % 3 == 0 ? String.valueOf(i * 7919L) : (i * 1.0e-3 + "e2"));
+        }
+        return sb.append(']').toString();
+    }
+}
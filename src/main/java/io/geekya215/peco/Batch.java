@@ -0,0 +1,67 @@
+package io.geekya215.peco;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+final class Batch {
+    private static final ExecutorService EXECUTOR = executor();
+
+    static <A> Stream<Result<Tuple<A, State>>> run(Parser<A> parser, Iterator<? extends CharSequence> inputs, int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        var results = new Iterator<Result<Tuple<A, State>>>() {
+            private final ArrayDeque<CompletableFuture<Result<Tuple<A, State>>>> inFlight = new ArrayDeque<>(concurrency);
+
+            @Override
+            public boolean hasNext() {
+                fill();
+                return !inFlight.isEmpty();
+            }
+
+            @Override
+            public Result<Tuple<A, State>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return inFlight.poll().join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof RuntimeException cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+
+            private void fill() {
+                while (inFlight.size() < concurrency && inputs.hasNext()) {
+                    var input = inputs.next();
+                    inFlight.add(CompletableFuture.supplyAsync(() -> Combinator.run(parser, input), EXECUTOR));
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static ExecutorService executor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                var thread = new Thread(runnable, "peco-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.geekya215.peco;
+
+record BoundedSource(Source source, long limit) implements Source {
+    @Override
+    public boolean isEnd(long offset) {
+        return offset >= limit || source.isEnd(offset);
+    }
+
+    @Override
+    public long length() {
+        var length = source.length();
+        return length < 0 ? -1 : Math.min(limit, length);
+    }
+
+    @Override
+    public char charAt(long offset) {
+        return source.charAt(offset);
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        return source.slice(start, end);
+    }
+
+    @Override
+    public long line(long offset) {
+        return source.line(offset);
+    }
+
+    @Override
+    public long column(long offset) {
+        return source.column(offset);
+    }
+
+    @Override
+    public String lineText(long offset) {
+        return source.lineText(offset);
+    }
+
+    @Override
+    public void release(long offset) {
+        source.release(offset);
+    }
+}
@@ -0,0 +1,18 @@
+package io.geekya215.peco;
+
+@FunctionalInterface
+public interface BytePredicate {
+    boolean test(byte b);
+
+    default BytePredicate negate() {
+        return b -> !test(b);
+    }
+
+    default BytePredicate or(BytePredicate other) {
+        return b -> test(b) || other.test(b);
+    }
+
+    default BytePredicate and(BytePredicate other) {
+        return b -> test(b) && other.test(b);
+    }
+}
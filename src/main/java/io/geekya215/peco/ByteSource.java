@@ -0,0 +1,74 @@
+package io.geekya215.peco;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+public final class ByteSource implements Source {
+    private final ByteBuffer buffer;
+    private final LineCursor lines = new LineCursor(this);
+
+    public ByteSource(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public long length() {
+        return this.buffer.limit();
+    }
+
+    public byte byteAt(long offset) {
+        return this.buffer.get((int) offset);
+    }
+
+    public short getShort(long offset, ByteOrder order) {
+        var value = this.buffer.getShort((int) offset);
+        return order == ByteOrder.BIG_ENDIAN ? value : Short.reverseBytes(value);
+    }
+
+    public int getInt(long offset, ByteOrder order) {
+        var value = this.buffer.getInt((int) offset);
+        return order == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    public long getLong(long offset, ByteOrder order) {
+        var value = this.buffer.getLong((int) offset);
+        return order == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    public ByteBuffer bytes(long start, long end) {
+        return this.buffer.slice((int) start, (int) (end - start));
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        return offset >= this.buffer.limit();
+    }
+
+    @Override
+    public char charAt(long offset) {
+        return (char) (byteAt(offset) & 0xff);
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        var bytes = new byte[(int) (end - start)];
+        this.buffer.get((int) start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public long line(long offset) {
+        return lines.line(offset);
+    }
+
+    @Override
+    public long column(long offset) {
+        return lines.column(offset);
+    }
+
+    @Override
+    public String lineText(long offset) {
+        return lines.lineText(offset);
+    }
+}
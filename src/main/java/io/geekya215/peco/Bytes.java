@@ -0,0 +1,195 @@
+package io.geekya215.peco;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.geekya215.peco.Combinator.*;
+
+public final class Bytes {
+    public static Parser<Byte> byteSatisfy(BytePredicate predicate, String label) {
+        return byteSatisfy(predicate, () -> label);
+    }
+
+    public static Parser<Byte> byteSatisfy(BytePredicate predicate, Supplier<String> label) {
+        return map(c -> (byte) c.charValue(), satisfy(c -> c <= 0xff && predicate.test((byte) c), label));
+    }
+
+    public static Parser<Byte> anyByte() {
+        return byteSatisfy(b -> true, "any byte");
+    }
+
+    public static Parser<Byte> byteValue(int value) {
+        var b = (byte) value;
+        return byteSatisfy(x -> x == b, () -> String.format("0x%02x", b & 0xff));
+    }
+
+    public static Parser<ByteBuffer> byteLiteral(byte... bytes) {
+        var copy = bytes.clone();
+        var literal = string(new String(copy, StandardCharsets.ISO_8859_1));
+        return setLabel(map(s -> ByteBuffer.wrap(copy).asReadOnlyBuffer(), literal), () -> "0x" + HexFormat.of().formatHex(copy));
+    }
+
+    public static Parser<ByteBuffer> take(int n) {
+        Supplier<String> label = () -> n + " bytes";
+        Function<State, Result<Tuple<ByteBuffer, State>>> fn = input -> {
+            var end = input.offset() + n;
+            if (n < 0) {
+                return Result.Failure.of(label, "Negative length " + n, input);
+            } else if (!available(input.source(), input.offset(), n)) {
+                return Result.Failure.of(label, input.at(endOf(input.source(), input.offset())));
+            }
+            return Result.Success.of(Tuple.of(bytes(input.source(), input.offset(), end), input.at(end)));
+        };
+        return Parser.of(fn, label);
+    }
+
+    public static Parser<Integer> uint8() {
+        return map(b -> b & 0xff, anyByte());
+    }
+
+    public static Parser<Integer> uint16(ByteOrder order) {
+        return fixed(2, "uint16", order, (source, offset) -> source.getShort(offset, order) & 0xffff);
+    }
+
+    public static Parser<Short> int16(ByteOrder order) {
+        return fixed(2, "int16", order, (source, offset) -> source.getShort(offset, order));
+    }
+
+    public static Parser<Integer> int32(ByteOrder order) {
+        return fixed(4, "int32", order, (source, offset) -> source.getInt(offset, order));
+    }
+
+    public static Parser<Long> uint32(ByteOrder order) {
+        return fixed(4, "uint32", order, (source, offset) -> source.getInt(offset, order) & 0xffffffffL);
+    }
+
+    public static Parser<Long> int64(ByteOrder order) {
+        return fixed(8, "int64", order, (source, offset) -> source.getLong(offset, order));
+    }
+
+    public static Parser<Long> varint() {
+        Supplier<String> label = () -> "varint";
+        Function<State, Result<Tuple<Long, State>>> fn = input -> {
+            var source = input.source();
+            var offset = input.offset();
+            var value = 0L;
+            for (var shift = 0; shift < Long.SIZE; shift += 7) {
+                if (source.isEnd(offset)) {
+                    return Result.Failure.of(label, input.at(offset));
+                }
+                var b = byteAt(source, offset++);
+                if (shift == 63 && (b & 0x7e) != 0) {
+                    return Result.Failure.of(label, "Varint overflows 64 bits", input);
+                }
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return Result.Success.of(Tuple.of(value, input.at(offset)));
+                }
+            }
+            return Result.Failure.of(label, "Varint longer than 10 bytes", input);
+        };
+        return Parser.of(fn, label);
+    }
+
+    public static Parser<Long> zigZagVarint() {
+        return setLabel(map(v -> (v >>> 1) ^ -(v & 1), varint()), "zigzag varint");
+    }
+
+    public static Parser<ByteBuffer> frame(Parser<? extends Number> length) {
+        return bind(n -> {
+            var size = n.longValue();
+            if (size > Integer.MAX_VALUE) {
+                Supplier<String> label = () -> size + " bytes";
+                return Parser.of(input -> Result.Failure.of(label, "Frame length exceeds " + Integer.MAX_VALUE + " bytes", input), label);
+            }
+            return take((int) size);
+        }, length);
+    }
+
+    public static <A> Parser<A> frame(Parser<? extends Number> length, Parser<A> body) {
+        Supplier<String> label = () -> "frame of " + body.label();
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var header = runOnInput(length, input);
+            if (header instanceof Result.Success<? extends Tuple<? extends Number, State>> s) {
+                var start = s.getValue().t2();
+                var end = start.offset() + s.getValue().t1().longValue();
+                if (end < start.offset() || !available(start.source(), start.offset(), end - start.offset())) {
+                    return Result.Failure.of(label, "Frame exceeds input", start);
+                }
+                var bounded = new State(new BoundedSource(start.source(), end), start.offset(), start.context());
+                var res = runOnInput(body, bounded);
+                if (res instanceof Result.Success<Tuple<A, State>> b) {
+                    return Result.Success.of(Tuple.of(b.getValue().t1(), start.at(end)));
+                } else {
+                    var failure = (Result.Failure) res;
+                    return new Result.Failure(failure::label, failure.error(), start.at(failure.state().offset()));
+                }
+            } else {
+                return (Result.Failure) header;
+            }
+        };
+        return Parser.of(fn, label);
+    }
+
+    private static <A> Parser<A> fixed(int width, String name, ByteOrder order, Reader<A> reader) {
+        Supplier<String> label = () -> name + (order == ByteOrder.BIG_ENDIAN ? " BE" : " LE");
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var source = input.source();
+            var offset = input.offset();
+            if (!available(source, offset, width)) {
+                return Result.Failure.of(label, input.at(endOf(source, offset)));
+            }
+            A value;
+            if (unwrap(source) instanceof ByteSource bytes) {
+                value = reader.read(bytes, offset);
+            } else {
+                value = reader.read(new ByteSource(bytes(source, offset, offset + width)), 0);
+            }
+            return Result.Success.of(Tuple.of(value, input.at(offset + width)));
+        };
+        return Parser.of(fn, label);
+    }
+
+    private static boolean available(Source source, long offset, long width) {
+        return width == 0 || !source.isEnd(offset + width - 1);
+    }
+
+    private static long endOf(Source source, long offset) {
+        while (!source.isEnd(offset)) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static Source unwrap(Source source) {
+        while (source instanceof BoundedSource bounded) {
+            source = bounded.source();
+        }
+        return source;
+    }
+
+    private static byte byteAt(Source source, long offset) {
+        return unwrap(source) instanceof ByteSource bytes ? bytes.byteAt(offset) : (byte) source.charAt(offset);
+    }
+
+    private static ByteBuffer bytes(Source source, long start, long end) {
+        if (unwrap(source) instanceof ByteSource bytes) {
+            return bytes.bytes(start, end);
+        } else {
+            var copy = new byte[(int) (end - start)];
+            for (var i = 0; i < copy.length; i++) {
+                copy[i] = byteAt(source, start + i);
+            }
+            return ByteBuffer.wrap(copy);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader<A> {
+        A read(ByteSource source, long offset);
+    }
+}
@@ -0,0 +1,117 @@
+package io.geekya215.peco;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+public final class CharClass implements CharPredicate {
+    private static final CharPredicate NONE = c -> false;
+
+    public static final CharClass EMPTY = of("");
+    public static final CharClass DIGIT = of(Character::isDigit);
+    public static final CharClass HEX_DIGIT = range('0', '9').union(range('a', 'f')).union(range('A', 'F'));
+    public static final CharClass SPACE = of(Character::isWhitespace);
+    public static final CharClass UPPER = of(Character::isUpperCase);
+    public static final CharClass LOWER = of(Character::isLowerCase);
+    public static final CharClass LETTER = of(Character::isLetter);
+    public static final CharClass ALPHA_NUM = of(Character::isLetterOrDigit);
+
+    private final long low;
+    private final long high;
+    private final CharPredicate beyondAscii;
+    private final char[] members;
+
+    private CharClass(long low, long high, CharPredicate beyondAscii, char[] members) {
+        this.low = low;
+        this.high = high;
+        this.beyondAscii = beyondAscii;
+        this.members = members;
+    }
+
+    public static CharClass of(CharPredicate predicate) {
+        if (predicate instanceof CharClass charClass) {
+            return charClass;
+        }
+        var low = 0L;
+        var high = 0L;
+        for (char c = 0; c < 128; c++) {
+            if (predicate.test(c)) {
+                if (c < 64) {
+                    low |= 1L << c;
+                } else {
+                    high |= 1L << c;
+                }
+            }
+        }
+        return new CharClass(low, high, predicate, null);
+    }
+
+    public static CharClass of(String chars) {
+        var low = 0L;
+        var high = 0L;
+        var others = new StringBuilder();
+        for (var i = 0; i < chars.length(); i++) {
+            var c = chars.charAt(i);
+            if (c < 64) {
+                low |= 1L << c;
+            } else if (c < 128) {
+                high |= 1L << c;
+            } else {
+                others.append(c);
+            }
+        }
+        var sorted = others.toString().toCharArray();
+        Arrays.sort(sorted);
+        if (sorted.length == 0) {
+            return new CharClass(low, high, NONE, sorted);
+        } else {
+            return new CharClass(low, high, c -> Arrays.binarySearch(sorted, c) >= 0, sorted);
+        }
+    }
+
+    public static CharClass of(Collection<Character> chars) {
+        var sb = new StringBuilder(chars.size());
+        chars.forEach(sb::append);
+        return of(sb.toString());
+    }
+
+    public static CharClass range(char from, char to) {
+        return of(c -> c >= from && c <= to);
+    }
+
+    public CharClass union(CharClass other) {
+        CharPredicate beyondAscii;
+        if (this.beyondAscii == NONE) {
+            beyondAscii = other.beyondAscii;
+        } else if (other.beyondAscii == NONE) {
+            beyondAscii = this.beyondAscii;
+        } else {
+            beyondAscii = this.beyondAscii.or(other.beyondAscii);
+        }
+        return new CharClass(this.low | other.low, this.high | other.high, beyondAscii, null);
+    }
+
+    public boolean isAsciiOnly() {
+        return this.beyondAscii == NONE;
+    }
+
+    public int single() {
+        if (this.members == null || Long.bitCount(this.low) + Long.bitCount(this.high) + this.members.length != 1) {
+            return -1;
+        } else if (this.members.length == 1) {
+            return this.members[0];
+        } else if (this.low != 0) {
+            return Long.numberOfTrailingZeros(this.low);
+        } else {
+            return 64 + Long.numberOfTrailingZeros(this.high);
+        }
+    }
+
+    @Override
+    public boolean test(char c) {
+        if (c < 128) {
+            return ((c < 64 ? this.low : this.high) >>> c & 1L) != 0;
+        } else {
+            return this.beyondAscii.test(c);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.geekya215.peco;
+
+@FunctionalInterface
+public interface CharPredicate {
+    boolean test(char c);
+
+    default CharPredicate negate() {
+        return c -> !test(c);
+    }
+
+    default CharPredicate or(CharPredicate other) {
+        return c -> test(c) || other.test(c);
+    }
+
+    default CharPredicate and(CharPredicate other) {
+        return c -> test(c) && other.test(c);
+    }
+}
@@ -0,0 +1,80 @@
+package io.geekya215.peco;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+public final class CharSequenceSource implements Source {
+    private final CharSequence text;
+    private volatile int[] lineStarts;
+
+    public CharSequenceSource(CharSequence text) {
+        this.text = text;
+    }
+
+    public CharSequence text() {
+        return this.text;
+    }
+
+    @Override
+    public long length() {
+        return this.text.length();
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        return offset >= this.text.length();
+    }
+
+    @Override
+    public char charAt(long offset) {
+        return this.text.charAt((int) offset);
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        return CharBuffer.wrap(this.text, (int) start, (int) end);
+    }
+
+    @Override
+    public long line(long offset) {
+        var index = Arrays.binarySearch(lineStarts(), (int) offset);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    @Override
+    public long column(long offset) {
+        return offset - lineStarts()[(int) line(offset)];
+    }
+
+    @Override
+    public String lineText(long offset) {
+        var start = lineStarts()[(int) line(offset)];
+        var end = start;
+        while (end < this.text.length() && this.text.charAt(end) != '\n') {
+            end++;
+        }
+        if (end > start && this.text.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return this.text.subSequence(start, end).toString();
+    }
+
+    private int[] lineStarts() {
+        var lineStarts = this.lineStarts;
+        if (lineStarts == null) {
+            var starts = new int[16];
+            var count = 1;
+            for (var i = 0; i < this.text.length(); i++) {
+                if (this.text.charAt(i) == '\n') {
+                    if (count == starts.length) {
+                        starts = Arrays.copyOf(starts, count * 2);
+                    }
+                    starts[count++] = i + 1;
+                }
+            }
+            lineStarts = Arrays.copyOf(starts, count);
+            this.lineStarts = lineStarts;
+        }
+        return lineStarts;
+    }
+}
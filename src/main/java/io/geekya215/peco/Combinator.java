@@ -1,28 +1,61 @@
 package io.geekya215.peco;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BinaryOperator;
 import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 public final class Combinator {
+    private static final AtomicInteger MEMO_IDS = new AtomicInteger();
+
     public static <A> Result<Tuple<A, State>> runOnInput(Parser<A> parser, State state) {
         return parser.fn().apply(state);
     }
 
-    public static <A> Result<Tuple<A, State>> run(Parser<A> parser, String input) {
-        return runOnInput(parser, Input.fromString(input));
+    public static <A> Result<Tuple<A, State>> run(Parser<A> parser, State state) {
+        return Events.run(parser, state);
+    }
+
+    public static <A> Result<Tuple<A, State>> run(Parser<A> parser, CharSequence input) {
+        return run(parser, Input.fromCharSequence(input));
+    }
+
+    public static <A> Result<Tuple<A, State>> run(Parser<A> parser, CharSequence input, MemoTable memo) {
+        return run(parser, Input.fromCharSequence(input, Context.of(memo)));
+    }
+
+    public static <A> Result<Tuple<A, State>> run(Parser<A> parser, CharSequence input, Profiler profiler) {
+        return run(profiler.instrument(parser), Input.fromCharSequence(input));
+    }
+
+    public static <A> List<Result<Tuple<A, State>>> runAll(Parser<A> parser, List<? extends CharSequence> inputs, int concurrency) {
+        return Batch.run(parser, inputs.iterator(), concurrency).toList();
+    }
+
+    public static <A> Stream<Result<Tuple<A, State>>> runAll(Parser<A> parser, Stream<? extends CharSequence> inputs, int concurrency) {
+        return Batch.run(parser, inputs.iterator(), concurrency).onClose(inputs::close);
+    }
+
+    public static <A> Parser<A> optimize(Parser<A> parser) {
+        return new Optimizer().optimize(parser);
     }
 
     public static <A> Parser<A> setLabel(Parser<A> parser, String label) {
-        return Parser.of(parser.fn(), label);
+        return setLabel(parser, () -> label);
+    }
+
+    public static <A> Parser<A> setLabel(Parser<A> parser, Supplier<String> label) {
+        return Parser.of(parser.fn(), label, parser.grammar());
     }
 
     public static <A, B> Parser<B> bind(Function<A, Parser<B>> f, Parser<A> p) {
-        var label = "unknown";
+        Supplier<String> label = () -> "unknown";
         Function<State, Result<Tuple<B, State>>> fn = input -> {
             var res = runOnInput(p, input);
             if (res instanceof Result.Success<Tuple<A, State>> s) {
@@ -35,103 +68,431 @@ public final class Combinator {
                 return (Result.Failure) res;
             }
         };
-        return Parser.of(fn, label);
+        return Parser.of(fn, label, new Grammar.Bind<>(f, p));
     }
 
     public static <A> Parser<A> pure(A a) {
-        var label = a.toString();
+        Supplier<String> label = () -> String.valueOf(a);
         Function<State, Result<Tuple<A, State>>> fn = input -> Result.Success.of(Tuple.of(a, input));
-        return Parser.of(fn, label);
+        return Parser.of(fn, label, new Grammar.Pure<>(a));
+    }
+
+    public static <A> Parser<A> ref(Supplier<Parser<A>> target) {
+        Supplier<String> label = () -> "ref";
+        Function<State, Result<Tuple<A, State>>> fn = input -> runOnInput(target.get(), input);
+        return Parser.of(fn, label, new Grammar.Ref<>(target));
+    }
+
+    public static Parser<Character> satisfy(CharPredicate predicate, String label) {
+        return satisfy(predicate, () -> label);
     }
 
-    public static Parser<Character> satisfy(Predicate<Character> predicate, String label) {
+    public static Parser<Character> satisfy(CharPredicate predicate, Supplier<String> label) {
         Function<State, Result<Tuple<Character, State>>> fn = input -> {
-            var t = Input.nextChar(input);
-            var remaining = t.t1();
-            var c = t.t2();
-            if (c.isEmpty()) {
-                var error = "No more input";
-                var location = Input.getLocationFromState(input);
-                return Result.Failure.of(label, error, location);
-            } else {
-                var first = c.get();
+            if (!input.isEnd()) {
+                var first = input.current();
                 if (predicate.test(first)) {
-                    return Result.Success.of(Tuple.of(first, remaining));
-                } else {
-                    var error = String.format("Unexpected '%c'", first);
-                    var location = Input.getLocationFromState(input);
-                    return Result.Failure.of(label, error, location);
+                    return Result.Success.of(Tuple.of(first, input.at(input.offset() + 1)));
                 }
             }
+            return Result.Failure.of(label, input);
         };
-        return Parser.of(fn, label);
+        return Parser.of(fn, label, new Grammar.Satisfy(predicate, label));
     }
 
     public static <A, B> Parser<B> map(Function<A, B> f, Parser<A> p) {
-        return bind(x -> pure(f.apply(x)), p);
+        Function<State, Result<Tuple<B, State>>> fn = input -> {
+            var res = runOnInput(p, input);
+            if (res instanceof Result.Success<Tuple<A, State>> s) {
+                return Result.Success.of(Tuple.of(f.apply(s.getValue().t1()), s.getValue().t2()));
+            } else {
+                return (Result.Failure) res;
+            }
+        };
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Map<>(f, p));
     }
 
     public static <A, B> Parser<B> apply(Parser<Function<A, B>> fp, Parser<A> p) {
-        return bind(f -> bind(x -> pure(f.apply(x)), p), fp);
+        return map(t -> t.t1().apply(t.t2()), then(fp, p));
     }
 
     public static <A, B, C> Parser<C> lift2(Function<A, Function<B, C>> f, Parser<A> x, Parser<B> y) {
-        return apply(apply(pure(f), x), y);
+        return map(t -> f.apply(t.t1()).apply(t.t2()), then(x, y));
     }
 
     public static <A, B> Parser<Tuple<A, B>> then(Parser<A> p1, Parser<B> p2) {
-        var label = String.format("%s then %s", p1.label(), p2.label());
-        return setLabel(bind(r1 -> bind(r2 -> pure(Tuple.of(r1, r2)), p2), p1), label);
+        Supplier<String> label = () -> p1.label() + " then " + p2.label();
+        Function<State, Result<Tuple<Tuple<A, B>, State>>> fn = input -> {
+            var res1 = runOnInput(p1, input);
+            if (res1 instanceof Result.Success<Tuple<A, State>> s1) {
+                var res2 = runOnInput(p2, s1.getValue().t2());
+                if (res2 instanceof Result.Success<Tuple<B, State>> s2) {
+                    return Result.Success.of(Tuple.of(Tuple.of(s1.getValue().t1(), s2.getValue().t1()), s2.getValue().t2()));
+                } else {
+                    return (Result.Failure) res2;
+                }
+            } else {
+                return (Result.Failure) res1;
+            }
+        };
+        return Parser.of(fn, label, new Grammar.Seq<>(p1, p2));
     }
 
     public static <A> Parser<A> or(Parser<A> p1, Parser<A> p2) {
-        var label = String.format("%s or %s", p1.label(), p2.label());
+        Supplier<String> label = () -> p1.label() + " or " + p2.label();
         Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var commits = input.context().commits();
             var res = runOnInput(p1, input);
-            if (res instanceof Result.Success<Tuple<A, State>>) {
+            if (res instanceof Result.Success<Tuple<A, State>> || input.context().commits() != commits) {
                 return res;
             } else {
                 return runOnInput(p2, input);
             }
         };
-        return Parser.of(fn, label);
+        return Parser.of(fn, label, new Grammar.Alt<>(List.of(p1, p2)));
     }
 
     public static <A> Parser<A> choice(List<Parser<A>> parsers) {
-        Function<State, Result<Tuple<A, State>>> fn = __ ->
-            Result.Failure.of("choice list", "empty choice list", new Location("", 0, 0));
-        var identity = Parser.of(fn, "choice list");
-        return parsers.stream().reduce(identity, Combinator::or);
+        var alternatives = List.copyOf(parsers);
+        Supplier<String> label = () -> alternatives.isEmpty()
+            ? "choice list"
+            : String.join(" or ", alternatives.stream().map(Parser::label).toList());
+        var dispatch = Dispatch.of(alternatives);
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var candidates = dispatch == null ? alternatives : dispatch.candidates(input);
+            var commits = input.context().commits();
+            Result<Tuple<A, State>> res = null;
+            for (var i = 0; i < candidates.size(); i++) {
+                res = runOnInput(candidates.get(i), input);
+                if (res instanceof Result.Success<Tuple<A, State>> || input.context().commits() != commits) {
+                    return res;
+                }
+            }
+            if (res != null) {
+                return res;
+            } else if (alternatives.isEmpty()) {
+                return Result.Failure.of(label, "empty choice list", input);
+            } else {
+                return Result.Failure.of(label, input);
+            }
+        };
+        return Parser.of(fn, label, new Grammar.Alt<>(alternatives));
     }
 
     public static <A> Parser<List<A>> sequence(List<Parser<A>> parsers) {
-        Function<A, Function<List<A>, List<A>>> curryCons = head -> tail -> cons(head, tail);
-        if (parsers.isEmpty()) {
-            return pure(List.of());
-        } else {
-            return lift2(curryCons, parsers.get(0), sequence(parsers.subList(1, parsers.size())));
-        }
+        var elements = List.copyOf(parsers);
+        Supplier<String> label = () -> String.join(" then ", elements.stream().map(Parser::label).toList());
+        Function<State, Result<Tuple<List<A>, State>>> fn = input -> {
+            var values = new ArrayList<A>(elements.size());
+            var remaining = input;
+            for (var element : elements) {
+                var res = runOnInput(element, remaining);
+                if (res instanceof Result.Success<Tuple<A, State>> s) {
+                    values.add(s.getValue().t1());
+                    remaining = s.getValue().t2();
+                } else {
+                    return (Result.Failure) res;
+                }
+            }
+            return Result.Success.of(Tuple.of(Collections.unmodifiableList(values), remaining));
+        };
+        return Parser.of(fn, label, new Grammar.Sequence<>(elements));
     }
 
     public static <A> Tuple<List<A>, State> parseZeroOrMore(Parser<A> parser, State state) {
-        var firstResult = runOnInput(parser, state);
-        if (firstResult instanceof Result.Failure) {
-            return Tuple.of(List.of(), state);
-        } else {
-            var t1 = ((Result.Success<Tuple<A, State>>) firstResult).getValue();
-            var firstValue = t1.t1();
-            var afterFirstParse = t1.t2();
-
-            var t2 = parseZeroOrMore(parser, afterFirstParse);
-            var subsequenceValue = t2.t1();
-            var remaining = t2.t2();
-
-            return Tuple.of(cons(firstValue, subsequenceValue), remaining);
+        var res = parseRemaining(parser, null, state, null);
+        return res instanceof Result.Success<Tuple<List<A>, State>> s ? s.getValue() : Tuple.of(List.of(), state);
+    }
+
+    private static <A, B> Result<Tuple<List<A>, State>> parseRemaining(Parser<A> parser, Parser<B> sep, State state, List<A> values) {
+        var context = state.context();
+        var remaining = state;
+        while (true) {
+            var commits = context.commits();
+            var next = remaining;
+            if (sep != null) {
+                var sepRes = runOnInput(sep, next);
+                if (sepRes instanceof Result.Success<Tuple<B, State>> s) {
+                    next = s.getValue().t2();
+                } else if (context.commits() != commits) {
+                    return (Result.Failure) sepRes;
+                } else {
+                    break;
+                }
+            }
+            var res = runOnInput(parser, next);
+            if (res instanceof Result.Success<Tuple<A, State>> s) {
+                if (values == null) {
+                    values = new ArrayList<>();
+                }
+                values.add(s.getValue().t1());
+                var consumed = s.getValue().t2().offset() != remaining.offset();
+                remaining = s.getValue().t2();
+                if (!consumed) {
+                    break;
+                }
+            } else if (context.commits() != commits) {
+                return (Result.Failure) res;
+            } else {
+                break;
+            }
         }
+        return Result.Success.of(Tuple.of(values == null ? List.of() : Collections.unmodifiableList(values), remaining));
+    }
+
+    private static <A, B> Parser<List<A>> parseRepeated(Parser<A> p, Parser<B> sep, boolean nonEmpty, Supplier<String> label) {
+        Function<State, Result<Tuple<List<A>, State>>> fn = input -> {
+            var res = runOnInput(p, input);
+            if (res instanceof Result.Success<Tuple<A, State>> s) {
+                var values = new ArrayList<A>();
+                values.add(s.getValue().t1());
+                if (s.getValue().t2().offset() == input.offset()) {
+                    return Result.Success.of(Tuple.of(Collections.unmodifiableList(values), input));
+                }
+                return parseRemaining(p, sep, s.getValue().t2(), values);
+            } else if (nonEmpty) {
+                return (Result.Failure) res;
+            } else {
+                return Result.Success.of(Tuple.of(List.of(), input));
+            }
+        };
+        return Parser.of(fn, label, new Grammar.Many<>(p, sep, nonEmpty));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <A> Parser<A> memo(Parser<A> p) {
+        var id = MEMO_IDS.getAndIncrement();
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var table = input.context().memo();
+            if (table == null) {
+                return runOnInput(p, input);
+            }
+            var context = input.context();
+            var cached = table.lookup(id, input.offset());
+            if (cached != null) {
+                if (cached.commits() != 0) {
+                    context.replay(cached.commits(), input.at(cached.committed()));
+                }
+                return (Result<Tuple<A, State>>) cached.result();
+            }
+            var commits = context.commits();
+            var res = runOnInput(p, input);
+            var crossed = context.commits() - commits;
+            table.store(id, input.offset(), new MemoTable.Memo(res, crossed, crossed == 0 ? -1 : context.committed()));
+            return res;
+        };
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Wrap<>(p, Combinator::memo, false));
+    }
+
+    public static <A> Parser<A> chainl1(Parser<A> p, Parser<BinaryOperator<A>> op) {
+        var link = then(op, p);
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var res = runOnInput(p, input);
+            if (!(res instanceof Result.Success<Tuple<A, State>> s)) {
+                return res;
+            }
+            var context = input.context();
+            var value = s.getValue().t1();
+            var remaining = s.getValue().t2();
+            while (true) {
+                var commits = context.commits();
+                var next = runOnInput(link, remaining);
+                if (next instanceof Result.Success<Tuple<Tuple<BinaryOperator<A>, A>, State>> n) {
+                    value = n.getValue().t1().t1().apply(value, n.getValue().t1().t2());
+                    if (n.getValue().t2().offset() == remaining.offset()) {
+                        return Result.Success.of(Tuple.of(value, remaining));
+                    }
+                    remaining = n.getValue().t2();
+                } else if (context.commits() != commits) {
+                    return (Result.Failure) next;
+                } else {
+                    return Result.Success.of(Tuple.of(value, remaining));
+                }
+            }
+        };
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Wrap<>(p, q -> chainl1(q, op), false));
+    }
+
+    public static <A> Parser<A> chainr1(Parser<A> p, Parser<BinaryOperator<A>> op) {
+        var link = then(op, p);
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var res = runOnInput(p, input);
+            if (!(res instanceof Result.Success<Tuple<A, State>> s)) {
+                return res;
+            }
+            var context = input.context();
+            var operands = new ArrayList<A>();
+            var operators = new ArrayList<BinaryOperator<A>>();
+            operands.add(s.getValue().t1());
+            var remaining = s.getValue().t2();
+            while (true) {
+                var commits = context.commits();
+                var next = runOnInput(link, remaining);
+                if (next instanceof Result.Success<Tuple<Tuple<BinaryOperator<A>, A>, State>> n) {
+                    operators.add(n.getValue().t1().t1());
+                    operands.add(n.getValue().t1().t2());
+                    if (n.getValue().t2().offset() == remaining.offset()) {
+                        break;
+                    }
+                    remaining = n.getValue().t2();
+                } else if (context.commits() != commits) {
+                    return (Result.Failure) next;
+                } else {
+                    break;
+                }
+            }
+            var value = operands.get(operands.size() - 1);
+            for (var i = operators.size() - 1; i >= 0; i--) {
+                value = operators.get(i).apply(operands.get(i), value);
+            }
+            return Result.Success.of(Tuple.of(value, remaining));
+        };
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Wrap<>(p, q -> chainr1(q, op), false));
+    }
+
+    public static <A> Parser<A> expression(Parser<A> atom, Operators<A> operators) {
+        Supplier<String> label = () -> "expression";
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var context = input.context();
+            var operands = new ArrayList<A>();
+            var pending = new ArrayList<Pending<A>>();
+            var remaining = input;
+            State resume = null;
+            var resumeDepth = 0;
+            while (true) {
+                var cycle = remaining.offset();
+                while (true) {
+                    var prefix = matchOperator(operators.prefix(), remaining);
+                    if (prefix instanceof Result.Failure failure) {
+                        return failure;
+                    } else if (prefix == null) {
+                        break;
+                    }
+                    var matched = ((Result.Success<Tuple<Tuple<Operators.Operator<UnaryOperator<A>>, UnaryOperator<A>>, State>>) prefix).getValue();
+                    if (matched.t2().offset() == remaining.offset()) {
+                        break;
+                    }
+                    pending.add(new Pending<>(matched.t1().t2(), null, matched.t1().t1().power(), false));
+                    remaining = matched.t2();
+                }
+                var commits = context.commits();
+                var res = runOnInput(atom, remaining);
+                if (res instanceof Result.Success<Tuple<A, State>> s) {
+                    operands.add(s.getValue().t1());
+                    remaining = s.getValue().t2();
+                } else if (resume == null || context.commits() != commits) {
+                    return res;
+                } else {
+                    pending.subList(resumeDepth, pending.size()).clear();
+                    remaining = resume;
+                    break;
+                }
+                while (true) {
+                    var postfix = matchOperator(operators.postfix(), remaining);
+                    if (postfix instanceof Result.Failure failure) {
+                        return failure;
+                    } else if (postfix == null) {
+                        break;
+                    }
+                    var matched = ((Result.Success<Tuple<Tuple<Operators.Operator<UnaryOperator<A>>, UnaryOperator<A>>, State>>) postfix).getValue();
+                    if (matched.t2().offset() == remaining.offset()) {
+                        break;
+                    }
+                    reduce(operands, pending, matched.t1().t1().power(), false);
+                    operands.set(operands.size() - 1, matched.t1().t2().apply(operands.get(operands.size() - 1)));
+                    remaining = matched.t2();
+                }
+                var infix = matchOperator(operators.infix(), remaining);
+                if (infix instanceof Result.Failure failure) {
+                    return failure;
+                } else if (infix == null) {
+                    break;
+                }
+                var matched = ((Result.Success<Tuple<Tuple<Operators.Operator<BinaryOperator<A>>, BinaryOperator<A>>, State>>) infix).getValue();
+                if (matched.t2().offset() == cycle) {
+                    break;
+                }
+                var operator = matched.t1().t1();
+                reduce(operands, pending, operator.power(), operator.rightAssociative());
+                resume = remaining;
+                resumeDepth = pending.size();
+                pending.add(new Pending<>(null, matched.t1().t2(), operator.power(), operator.rightAssociative()));
+                remaining = matched.t2();
+            }
+            reduce(operands, pending, Integer.MIN_VALUE, false);
+            return Result.Success.of(Tuple.of(operands.get(0), remaining));
+        };
+        return Parser.of(fn, label);
+    }
+
+    private static <F> Result<Tuple<Tuple<Operators.Operator<F>, F>, State>> matchOperator(List<Operators.Operator<F>> operators, State input) {
+        var context = input.context();
+        for (var operator : operators) {
+            var commits = context.commits();
+            var res = runOnInput(operator.parser(), input);
+            if (res instanceof Result.Success<Tuple<F, State>> s) {
+                return Result.Success.of(Tuple.of(Tuple.of(operator, s.getValue().t1()), s.getValue().t2()));
+            } else if (context.commits() != commits) {
+                return (Result.Failure) res;
+            }
+        }
+        return null;
+    }
+
+    private static <A> void reduce(List<A> operands, List<Pending<A>> pending, int power, boolean rightAssociative) {
+        while (!pending.isEmpty()) {
+            var top = pending.get(pending.size() - 1);
+            if (top.power() < power || top.power() == power && rightAssociative) {
+                return;
+            }
+            pending.remove(pending.size() - 1);
+            var last = operands.size() - 1;
+            if (top.unary() != null) {
+                operands.set(last, top.unary().apply(operands.get(last)));
+            } else {
+                var right = operands.remove(last);
+                operands.set(last - 1, top.binary().apply(operands.get(last - 1), right));
+            }
+        }
+    }
+
+    private record Pending<A>(UnaryOperator<A> unary, BinaryOperator<A> binary, int power, boolean rightAssociative) {
+    }
+
+    public static Parser<Unit> cut() {
+        Supplier<String> label = () -> "cut";
+        Function<State, Result<Tuple<Unit, State>>> fn = input -> {
+            input.context().commit(input);
+            return Result.Success.of(Tuple.of(Unit.UNIT, input));
+        };
+        return Parser.of(fn, label, new Grammar.Cut());
+    }
+
+    public static <A> Parser<A> commit(Parser<A> p) {
+        return setLabel(discardR(p, cut()), p.labelSupplier());
+    }
+
+    public static <A> Parser<A> attempt(Parser<A> p) {
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var context = input.context();
+            var commits = context.commits();
+            var committed = context.committed();
+            context.enterAttempt();
+            var res = runOnInput(p, input);
+            var succeeded = res instanceof Result.Success<Tuple<A, State>>;
+            context.exitAttempt(input, commits, committed, succeeded);
+            return res;
+        };
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Wrap<>(p, Combinator::attempt, false));
+    }
+
+    public static <A> Parser<A> traced(Parser<A> p) {
+        Function<State, Result<Tuple<A, State>>> fn = input -> Events.trace(p, input);
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Wrap<>(p, Combinator::traced, false));
     }
 
     public static <A> Parser<Optional<A>> opt(Parser<A> p) {
-        var label = String.format("opt %s", p.label());
+        Supplier<String> label = () -> "opt " + p.label();
         return setLabel(or(map(Optional::of, p), pure(Optional.empty())), label);
     }
 
@@ -148,51 +509,131 @@ public final class Combinator {
     }
 
     public static <A> Parser<List<A>> many(Parser<A> p) {
-        var label = String.format("many %s", p.label());
-        Function<State, Result<Tuple<List<A>, State>>> fn = input -> Result.Success.of(parseZeroOrMore(p, input));
-        return Parser.of(fn, label);
+        Supplier<String> label = () -> "many " + p.label();
+        return parseRepeated(p, null, false, label);
     }
 
     public static <A> Parser<List<A>> many1(Parser<A> p) {
-        var label = String.format("many1 %s", p.label());
-        return setLabel(bind(head -> bind(tail -> pure(cons(head, tail)), many(p)), p), label);
+        Supplier<String> label = () -> "many1 " + p.label();
+        return parseRepeated(p, null, true, label);
     }
 
     public static <A, B> Parser<List<A>> sepBy(Parser<A> p, Parser<B> sep) {
-        return or(sepBy1(p, sep), pure(List.of()));
+        Supplier<String> label = () -> p.label() + " sep by " + sep.label();
+        return parseRepeated(p, sep, false, label);
     }
 
     public static <A, B> Parser<List<A>> sepBy1(Parser<A> p, Parser<B> sep) {
-        var sepThen = discardL(sep, p);
-        return map(t -> cons(t.t1(), t.t2()), then(p, many(sepThen)));
+        Supplier<String> label = () -> p.label() + " sep by " + sep.label();
+        return parseRepeated(p, sep, true, label);
     }
 
     public static Parser<Character> anyOf(List<Character> chars) {
-        var label = String.format("%s", chars.toString());
-        return setLabel(choice(chars.stream().map(Combinator::character).toList()), label);
+        Supplier<String> label = chars::toString;
+        return satisfy(CharClass.of(chars), label);
     }
 
     public static <A> Parser<List<A>> count(Integer n, Parser<A> p) {
         return n <= 0
             ? pure(List.of())
-            : sequence(Stream.generate(() -> Parser.of(p.fn(), p.label())).limit(n).collect(Collectors.toList()));
+            : sequence(Collections.nCopies(n, p));
+    }
+
+    public static Parser<CharSequence> takeWhile(CharPredicate predicate) {
+        var label = "take while";
+        Function<State, Result<Tuple<CharSequence, State>>> fn = input -> {
+            var end = scan(predicate, input);
+            return Result.Success.of(Tuple.of(input.source().slice(input.offset(), end), input.at(end)));
+        };
+        return Parser.of(fn, () -> label, new Grammar.Span<>(predicate, false));
+    }
+
+    public static Parser<CharSequence> takeWhile1(CharPredicate predicate, String label) {
+        Supplier<String> labelSupplier = () -> label;
+        Function<State, Result<Tuple<CharSequence, State>>> fn = input -> {
+            var end = scan(predicate, input);
+            if (end == input.offset()) {
+                return Result.Failure.of(labelSupplier, input);
+            } else {
+                return Result.Success.of(Tuple.of(input.source().slice(input.offset(), end), input.at(end)));
+            }
+        };
+        return Parser.of(fn, labelSupplier, new Grammar.Span<>(predicate, true));
+    }
+
+    public static Parser<Unit> skipWhile(CharPredicate predicate) {
+        var label = "skip while";
+        Function<State, Result<Tuple<Unit, State>>> fn = input ->
+            Result.Success.of(Tuple.of(Unit.UNIT, input.at(scan(predicate, input))));
+        return Parser.of(fn, () -> label, new Grammar.Span<>(predicate, false));
+    }
+
+    public static <A> Parser<Unit> skipMany(Parser<A> p) {
+        Supplier<String> label = () -> "skip many " + p.label();
+        Function<State, Result<Tuple<Unit, State>>> fn = input -> {
+            var context = input.context();
+            var remaining = input;
+            while (true) {
+                var commits = context.commits();
+                var res = runOnInput(p, remaining);
+                if (res instanceof Result.Success<Tuple<A, State>> s && s.getValue().t2().offset() != remaining.offset()) {
+                    remaining = s.getValue().t2();
+                } else if (res instanceof Result.Failure failure && context.commits() != commits) {
+                    return failure;
+                } else {
+                    return Result.Success.of(Tuple.of(Unit.UNIT, remaining));
+                }
+            }
+        };
+        return Parser.of(fn, label, new Grammar.Wrap<>(p, Combinator::skipMany, true));
+    }
+
+    public static <A> Parser<A> lexeme(Parser<A> p) {
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var res = runOnInput(p, input);
+            if (res instanceof Result.Success<Tuple<A, State>> s) {
+                var remaining = s.getValue().t2();
+                var end = scan(CharClass.SPACE, remaining);
+                return end == remaining.offset() ? res : Result.Success.of(Tuple.of(s.getValue().t1(), remaining.at(end)));
+            } else {
+                return res;
+            }
+        };
+        return Parser.of(fn, p.labelSupplier(), new Grammar.Wrap<>(p, Combinator::lexeme, false));
+    }
+
+    private static long scan(CharPredicate predicate, State state) {
+        var source = state.source();
+        var offset = state.offset();
+        while (!source.isEnd(offset) && predicate.test(source.charAt(offset))) {
+            offset++;
+        }
+        return offset;
     }
 
-    public static Parser<Character> character(Character c) {
-        var label = String.format("'%c'", c);
-        return satisfy(x -> x == c, label);
+    public static Parser<Character> character(char c) {
+        Supplier<String> label = () -> "'" + c + "'";
+        return satisfy(CharClass.of(String.valueOf(c)), label);
     }
 
     public static Parser<String> string(String str) {
-        return map(
-            xs -> xs.stream().map(String::valueOf).collect(Collectors.joining()),
-            sequence(str.chars().mapToObj(e -> (char) e).map(Combinator::character).toList())
-        );
+        Supplier<String> label = () -> "\"" + str + "\"";
+        Function<State, Result<Tuple<String, State>>> fn = input -> {
+            var source = input.source();
+            var offset = input.offset();
+            for (var i = 0; i < str.length(); i++) {
+                if (source.isEnd(offset + i) || source.charAt(offset + i) != str.charAt(i)) {
+                    return Result.Failure.of(label, input.at(offset + i));
+                }
+            }
+            return Result.Success.of(Tuple.of(str, input.at(offset + str.length())));
+        };
+        return Parser.of(fn, label, new Grammar.Literal(str));
     }
 
     public static Parser<Character> space() {
         var label = "<whitespace>";
-        return satisfy(Character::isWhitespace, label);
+        return satisfy(CharClass.SPACE, label);
     }
 
     public static Parser<List<Character>> spaces() {
@@ -212,27 +653,32 @@ public final class Combinator {
 
     public static Parser<Character> upper() {
         var label = "uppercase letter";
-        return satisfy(Character::isUpperCase, label);
+        return satisfy(CharClass.UPPER, label);
     }
 
     public static Parser<Character> lower() {
         var label = "lowercase letter";
-        return satisfy(Character::isLowerCase, label);
+        return satisfy(CharClass.LOWER, label);
     }
 
     public static Parser<Character> digit() {
         var label = "digit";
-        return satisfy(Character::isDigit, label);
+        return satisfy(CharClass.DIGIT, label);
+    }
+
+    public static Parser<Character> hexDigit() {
+        var label = "hex digit";
+        return satisfy(CharClass.HEX_DIGIT, label);
     }
 
     public static Parser<Character> letter() {
         var label = "letter";
-        return satisfy(Character::isLetter, label);
+        return satisfy(CharClass.LETTER, label);
     }
 
     public static Parser<Character> alphaNum() {
         var label = "letter or digit";
-        return satisfy(Character::isLetterOrDigit, label);
+        return satisfy(CharClass.ALPHA_NUM, label);
     }
 
     public static <A> List<A> cons(A head, List<A> tail) {
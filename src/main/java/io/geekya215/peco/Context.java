@@ -0,0 +1,86 @@
+package io.geekya215.peco;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+public final class Context {
+    private final MemoTable memo;
+    private Map<Object, Object> locals;
+    private long commits;
+    private long committed;
+    private int attempts;
+
+    public Context(MemoTable memo) {
+        this.memo = memo;
+    }
+
+    public static Context of() {
+        return new Context(null);
+    }
+
+    public static Context of(MemoTable memo) {
+        return new Context(memo);
+    }
+
+    public MemoTable memo() {
+        return this.memo;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T local(Object key, Supplier<? extends T> initial) {
+        if (locals == null) {
+            locals = new HashMap<>();
+        }
+        var value = (T) locals.get(key);
+        if (value == null) {
+            value = initial.get();
+            locals.put(key, value);
+        }
+        return value;
+    }
+
+    public long commits() {
+        return this.commits;
+    }
+
+    public long committed() {
+        return this.committed;
+    }
+
+    void commit(State state) {
+        commits++;
+        committed = Math.max(committed, state.offset());
+        if (attempts == 0) {
+            state.source().release(committed);
+        }
+    }
+
+    void replay(long commits, State state) {
+        this.commits += commits;
+        committed = Math.max(committed, state.offset());
+        if (attempts == 0) {
+            state.source().release(committed);
+        }
+    }
+
+    long exchangeCommitted(long committed) {
+        var previous = this.committed;
+        this.committed = committed;
+        return previous;
+    }
+
+    void enterAttempt() {
+        attempts++;
+    }
+
+    void exitAttempt(State state, long commits, long committed, boolean succeeded) {
+        attempts--;
+        if (!succeeded) {
+            this.commits = commits;
+            this.committed = committed;
+        } else if (attempts == 0 && this.commits != commits) {
+            state.source().release(this.committed);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.geekya215.peco;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class DecodedSource implements Source {
+    private static final int BLOCK_BYTES = 64 * 1024;
+    private static final int CACHED_BLOCKS = 64;
+
+    private final MappedSource bytes;
+    private final Charset charset;
+    private final ThreadLocal<Block> last = new ThreadLocal<>();
+    private final Map<Integer, Block> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Block> eldest) {
+            return size() > CACHED_BLOCKS;
+        }
+    };
+    private final LineCursor lines = new LineCursor(this);
+    private long[] byteStarts = new long[16];
+    private long[] charStarts = new long[16];
+    private volatile int indexed;
+
+    DecodedSource(MappedSource bytes, Charset charset) {
+        this.bytes = bytes;
+        this.charset = charset;
+    }
+
+    @Override
+    public long length() {
+        index(Long.MAX_VALUE);
+        return charStarts[indexed];
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        return block(offset) == null;
+    }
+
+    @Override
+    public char charAt(long offset) {
+        var block = block(offset);
+        if (block == null) {
+            throw new IndexOutOfBoundsException(String.format("offset %d is past the end of input", offset));
+        }
+        return block.chars()[(int) (offset - block.start())];
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        var sb = new StringBuilder((int) (end - start));
+        var offset = start;
+        while (offset < end) {
+            var block = block(offset);
+            var from = (int) (offset - block.start());
+            var n = (int) Math.min(end - offset, block.chars().length - from);
+            sb.append(block.chars(), from, n);
+            offset += n;
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long line(long offset) {
+        return lines.line(offset);
+    }
+
+    @Override
+    public long column(long offset) {
+        return lines.column(offset);
+    }
+
+    @Override
+    public String lineText(long offset) {
+        return lines.lineText(offset);
+    }
+
+    private Block block(long offset) {
+        var block = last.get();
+        if (block != null && offset >= block.start() && offset < block.start() + block.chars().length) {
+            return block;
+        }
+        var n = indexed;
+        var starts = charStarts;
+        if (offset >= starts[n]) {
+            if (!index(offset)) {
+                return null;
+            }
+            n = indexed;
+            starts = charStarts;
+        }
+        var k = Arrays.binarySearch(starts, 0, n + 1, offset);
+        k = k >= 0 ? k : -k - 2;
+        while (starts[k + 1] <= offset) {
+            k++;
+        }
+        block = cached(k);
+        last.set(block);
+        return block;
+    }
+
+    private synchronized boolean index(long offset) {
+        while (offset >= charStarts[indexed] && byteStarts[indexed] < bytes.size()) {
+            var k = indexed;
+            var block = decode(byteStarts[k], charStarts[k]);
+            if (k + 1 == byteStarts.length) {
+                byteStarts = Arrays.copyOf(byteStarts, byteStarts.length * 2);
+                charStarts = Arrays.copyOf(charStarts, charStarts.length * 2);
+            }
+            byteStarts[k + 1] = block.end();
+            charStarts[k + 1] = block.start() + block.chars().length;
+            synchronized (cache) {
+                cache.put(k, block);
+            }
+            indexed = k + 1;
+        }
+        return offset < charStarts[indexed];
+    }
+
+    private Block cached(int index) {
+        Block block;
+        synchronized (cache) {
+            block = cache.get(index);
+        }
+        if (block == null) {
+            block = decode(byteStarts[index], charStarts[index]);
+            synchronized (cache) {
+                cache.put(index, block);
+            }
+        }
+        return block;
+    }
+
+    private Block decode(long start, long charStart) {
+        var end = Math.min(bytes.size(), start + BLOCK_BYTES);
+        var eof = end == bytes.size();
+        var in = bytes.buffer(start, end);
+        var decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        var out = CharBuffer.allocate((int) Math.ceil(in.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+        decoder.decode(in, out, eof);
+        if (eof) {
+            decoder.flush(out);
+        } else if (in.position() == 0) {
+            throw new IllegalStateException(String.format("cannot decode %s at byte %d", charset, start));
+        }
+        return new Block(charStart, Arrays.copyOf(out.array(), out.position()), start + in.position());
+    }
+
+    private record Block(long start, char[] chars, long end) {
+    }
+}
@@ -0,0 +1,62 @@
+package io.geekya215.peco;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+
+final class Dispatch<A> {
+    private final List<List<Parser<A>>> ascii;
+    private final List<Parser<A>> beyondAscii;
+    private final List<Parser<A>> atEnd;
+
+    private Dispatch(List<List<Parser<A>>> ascii, List<Parser<A>> beyondAscii, List<Parser<A>> atEnd) {
+        this.ascii = ascii;
+        this.beyondAscii = beyondAscii;
+        this.atEnd = atEnd;
+    }
+
+    static <A> Dispatch<A> of(List<Parser<A>> alternatives) {
+        if (alternatives.size() < 2) {
+            return null;
+        }
+        var firsts = alternatives.stream().map(FirstSet::of).toList();
+        if (firsts.stream().allMatch(first -> first == null || first.nullable())) {
+            return null;
+        }
+        var shared = new HashMap<BitSet, List<Parser<A>>>();
+        var ascii = new ArrayList<List<Parser<A>>>(128);
+        for (char c = 0; c < 128; c++) {
+            var ch = c;
+            ascii.add(select(alternatives, firsts, first -> first.canStartWith(ch), shared));
+        }
+        var beyondAscii = select(alternatives, firsts, FirstSet::canStartBeyondAscii, shared);
+        var atEnd = select(alternatives, firsts, FirstSet::nullable, shared);
+        return new Dispatch<>(List.copyOf(ascii), beyondAscii, atEnd);
+    }
+
+    private static <A> List<Parser<A>> select(
+        List<Parser<A>> alternatives,
+        List<FirstSet> firsts,
+        Predicate<FirstSet> accepts,
+        HashMap<BitSet, List<Parser<A>>> shared
+    ) {
+        var selected = new BitSet(alternatives.size());
+        for (var i = 0; i < alternatives.size(); i++) {
+            var first = firsts.get(i);
+            if (first == null || accepts.test(first)) {
+                selected.set(i);
+            }
+        }
+        return shared.computeIfAbsent(selected, __ -> selected.stream().mapToObj(alternatives::get).toList());
+    }
+
+    List<Parser<A>> candidates(State input) {
+        if (input.isEnd()) {
+            return atEnd;
+        }
+        var c = input.current();
+        return c < 128 ? ascii.get(c) : beyondAscii;
+    }
+}
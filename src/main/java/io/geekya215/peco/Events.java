@@ -0,0 +1,128 @@
+package io.geekya215.peco;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import static io.geekya215.peco.Combinator.runOnInput;
+
+final class Events {
+    static <A> Result<Tuple<A, State>> run(Parser<A> parser, State state) {
+        var parse = new Parse();
+        var memoEvent = new Memo();
+        if (!parse.isEnabled() && !memoEvent.isEnabled()) {
+            return runOnInput(parser, state);
+        }
+        var memo = state.context().memo();
+        var hits = memo == null ? 0 : memo.hits();
+        var misses = memo == null ? 0 : memo.misses();
+        var start = System.nanoTime();
+        parse.begin();
+        memoEvent.begin();
+        var res = runOnInput(parser, state);
+        parse.end();
+        memoEvent.end();
+        if (parse.shouldCommit()) {
+            var end = res instanceof Result.Success<Tuple<A, State>> s ? s.getValue().t2() : ((Result.Failure) res).state();
+            parse.parser = parser.label();
+            parse.inputLength = state.source().length();
+            parse.consumed = end.offset() - state.offset();
+            parse.success = res instanceof Result.Success;
+            parse.charsPerSecond = parse.consumed * 1e9 / Math.max(1, System.nanoTime() - start);
+            parse.commit();
+        }
+        if (memo != null && memoEvent.shouldCommit()) {
+            memoEvent.parser = parser.label();
+            memoEvent.hits = memo.hits() - hits;
+            memoEvent.misses = memo.misses() - misses;
+            memoEvent.hitRate = memoEvent.hits + memoEvent.misses == 0 ? 0 : (double) memoEvent.hits / (memoEvent.hits + memoEvent.misses);
+            memoEvent.commit();
+        }
+        return res;
+    }
+
+    static <A> Result<Tuple<A, State>> trace(Parser<A> parser, State state) {
+        var event = new SubParser();
+        if (!event.isEnabled()) {
+            return runOnInput(parser, state);
+        }
+        event.begin();
+        var res = runOnInput(parser, state);
+        event.end();
+        if (event.shouldCommit()) {
+            event.parser = parser.label();
+            event.offset = state.offset();
+            event.success = res instanceof Result.Success;
+            event.consumed = res instanceof Result.Success<Tuple<A, State>> s ? s.getValue().t2().offset() - state.offset() : 0;
+            event.commit();
+        }
+        return res;
+    }
+
+    @Name("io.geekya215.peco.Parse")
+    @Label("Parse")
+    @Category("peco")
+    @Description("A top-level parse run")
+    @StackTrace(false)
+    static final class Parse extends Event {
+        @Label("Parser")
+        String parser;
+
+        @Label("Input Length")
+        @Description("Length of the input in chars, or -1 when it is streamed")
+        long inputLength;
+
+        @Label("Consumed")
+        @Description("Chars consumed, or the offset reached by a failure")
+        long consumed;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Throughput")
+        @Description("Chars consumed per second")
+        double charsPerSecond;
+    }
+
+    @Name("io.geekya215.peco.SubParser")
+    @Label("Slow Sub-Parser")
+    @Category("peco")
+    @Description("A sub-parser invocation that took longer than the threshold")
+    @Threshold("10 ms")
+    static final class SubParser extends Event {
+        @Label("Parser")
+        String parser;
+
+        @Label("Offset")
+        long offset;
+
+        @Label("Consumed")
+        long consumed;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("io.geekya215.peco.Memo")
+    @Label("Memo Table")
+    @Category("peco")
+    @Description("Memo table lookups during a parse run")
+    @StackTrace(false)
+    static final class Memo extends Event {
+        @Label("Parser")
+        String parser;
+
+        @Label("Hits")
+        long hits;
+
+        @Label("Misses")
+        long misses;
+
+        @Label("Hit Rate")
+        double hitRate;
+    }
+}
@@ -0,0 +1,70 @@
+package io.geekya215.peco;
+
+record FirstSet(CharClass chars, boolean nullable) {
+    private static final FirstSet EMPTY = new FirstSet(CharClass.EMPTY, true);
+
+    static FirstSet of(Parser<?> parser) {
+        var grammar = parser.grammar();
+        if (grammar instanceof Grammar.Literal literal) {
+            return literal.text().isEmpty() ? EMPTY : new FirstSet(CharClass.of(literal.text().substring(0, 1)), false);
+        } else if (grammar instanceof Grammar.Satisfy satisfy) {
+            return new FirstSet(CharClass.of(satisfy.predicate()), false);
+        } else if (grammar instanceof Grammar.Span<?> span) {
+            return new FirstSet(CharClass.of(span.predicate()), !span.nonEmpty());
+        } else if (grammar instanceof Grammar.Pure<?>) {
+            return EMPTY;
+        } else if (grammar instanceof Grammar.Cut) {
+            return null;
+        } else if (grammar instanceof Grammar.Seq<?, ?> seq) {
+            return then(of(seq.first()), seq.second());
+        } else if (grammar instanceof Grammar.Sequence<?> sequence) {
+            var first = EMPTY;
+            for (var p : sequence.parsers()) {
+                if (first == null || !first.nullable()) {
+                    break;
+                }
+                first = then(first, p);
+            }
+            return first;
+        } else if (grammar instanceof Grammar.Alt<?> alt) {
+            var first = new FirstSet(CharClass.EMPTY, false);
+            for (var p : alt.alternatives()) {
+                var next = of(p);
+                if (next == null) {
+                    return null;
+                }
+                first = new FirstSet(first.chars().union(next.chars()), first.nullable() || next.nullable());
+            }
+            return first;
+        } else if (grammar instanceof Grammar.Many<?, ?> many) {
+            var first = of(many.element());
+            return first == null ? null : new FirstSet(first.chars(), first.nullable() || !many.nonEmpty());
+        } else if (grammar instanceof Grammar.Map<?, ?> map) {
+            return of(map.source());
+        } else if (grammar instanceof Grammar.Bind<?, ?> bind) {
+            var first = of(bind.source());
+            return first == null || first.nullable() ? null : first;
+        } else if (grammar instanceof Grammar.Wrap<?, ?> wrap) {
+            var first = of(wrap.inner());
+            return first == null || first.nullable() ? null : new FirstSet(first.chars(), wrap.nullable());
+        } else {
+            return null;
+        }
+    }
+
+    private static FirstSet then(FirstSet first, Parser<?> next) {
+        if (first == null || !first.nullable()) {
+            return first;
+        }
+        var second = of(next);
+        return second == null ? null : new FirstSet(first.chars().union(second.chars()), second.nullable());
+    }
+
+    boolean canStartWith(char c) {
+        return nullable || chars.test(c);
+    }
+
+    boolean canStartBeyondAscii() {
+        return nullable || !chars.isAsciiOnly();
+    }
+}
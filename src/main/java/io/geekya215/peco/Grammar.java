@@ -0,0 +1,51 @@
+package io.geekya215.peco;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public sealed interface Grammar<A>
+    permits Grammar.Opaque, Grammar.Literal, Grammar.Satisfy, Grammar.Pure, Grammar.Seq, Grammar.Sequence,
+    Grammar.Alt, Grammar.Many, Grammar.Span, Grammar.Map, Grammar.Bind, Grammar.Ref, Grammar.Wrap, Grammar.Cut {
+    record Opaque<A>() implements Grammar<A> {
+    }
+
+    record Literal(String text) implements Grammar<String> {
+    }
+
+    record Satisfy(CharPredicate predicate, Supplier<String> label) implements Grammar<Character> {
+    }
+
+    record Pure<A>(A value) implements Grammar<A> {
+    }
+
+    record Seq<A, B>(Parser<A> first, Parser<B> second) implements Grammar<Tuple<A, B>> {
+    }
+
+    record Sequence<A>(List<Parser<A>> parsers) implements Grammar<List<A>> {
+    }
+
+    record Alt<A>(List<Parser<A>> alternatives) implements Grammar<A> {
+    }
+
+    record Many<A, B>(Parser<A> element, Parser<B> separator, boolean nonEmpty) implements Grammar<List<A>> {
+    }
+
+    record Span<A>(CharPredicate predicate, boolean nonEmpty) implements Grammar<A> {
+    }
+
+    record Map<A, B>(Function<A, B> f, Parser<A> source) implements Grammar<B> {
+    }
+
+    record Bind<A, B>(Function<A, Parser<B>> f, Parser<A> source) implements Grammar<B> {
+    }
+
+    record Ref<A>(Supplier<Parser<A>> target) implements Grammar<A> {
+    }
+
+    record Wrap<A, B>(Parser<A> inner, Function<Parser<A>, Parser<B>> combinator, boolean nullable) implements Grammar<B> {
+    }
+
+    record Cut() implements Grammar<Unit> {
+    }
+}
@@ -0,0 +1,52 @@
+package io.geekya215.peco;
+
+import static io.geekya215.peco.Combinator.run;
+
+public final class Incremental<A> {
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+
+    private final Parser<A> parser;
+    private final MemoTable.Tracked memo;
+    private final Context context;
+    private Rope text;
+    private State state;
+
+    private Incremental(Parser<A> parser, String text, int maxEntries) {
+        this.parser = parser;
+        this.memo = new MemoTable.Tracked(maxEntries);
+        this.context = Context.of(this.memo);
+        this.text = Rope.of(text);
+        this.state = new State(this.memo.track(this.text), 0, this.context);
+    }
+
+    public static <A> Incremental<A> of(Parser<A> parser, String text) {
+        return of(parser, text, DEFAULT_MAX_ENTRIES);
+    }
+
+    public static <A> Incremental<A> of(Parser<A> parser, String text, int maxEntries) {
+        return new Incremental<>(parser, text, maxEntries);
+    }
+
+    public String text() {
+        return this.text.toString();
+    }
+
+    public MemoTable memo() {
+        return this.memo;
+    }
+
+    public Result<Tuple<A, State>> parse() {
+        return run(parser, state);
+    }
+
+    public Result<Tuple<A, State>> edit(int offset, int removed, String inserted) {
+        var length = text.length();
+        if (offset < 0 || removed < 0 || offset + removed > length) {
+            throw new IndexOutOfBoundsException(String.format("edit [%d, %d) is outside the text of length %d", offset, offset + removed, length));
+        }
+        text = text.edit(offset, removed, inserted);
+        memo.edit(offset, removed, inserted.length());
+        state = new State(memo.track(text), 0, context);
+        return parse();
+    }
+}
@@ -1,61 +1,79 @@
 package io.geekya215.peco;
 
-import java.util.Arrays;
-import java.util.List;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.Optional;
 
 public final class Input {
-    public static Position initialPosition() {
-        return new Position(0, 0);
+    public static final int DEFAULT_WINDOW = 64 * 1024;
+
+    public static String currentLine(State state) {
+        return state.source().lineText(state.offset());
     }
 
-    public static Position incrementLine(Position position) {
-        return new Position(position.line() + 1, 0);
+    public static State fromString(String str) {
+        return fromCharSequence(str);
     }
 
-    public static Position incrementColumn(Position position) {
-        return new Position(position.line(), position.column() + 1);
+    public static State fromCharSequence(CharSequence text) {
+        return fromCharSequence(text, Context.of());
     }
 
-    public static String currentLine(State state) {
-        var linePos = state.position().line();
-        if (linePos < state.lines().size()) {
-            return state.lines().get(linePos);
-        } else {
-            return "end of file";
-        }
+    public static State fromCharSequence(CharSequence text, Context context) {
+        return new State(Source.of(text), 0, context);
     }
 
-    public static State fromString(String str) {
-        if (str == null || str.isEmpty()) {
-            return new State(List.of(), initialPosition());
-        } else {
-            return new State(Arrays.stream(str.split("\\r?\\n")).toList(), initialPosition());
+    public static State fromReader(Reader reader) {
+        return fromReader(reader, DEFAULT_WINDOW);
+    }
+
+    public static State fromReader(Reader reader, int window) {
+        return new State(new ReaderSource(reader, window), 0, Context.of());
+    }
+
+    public static State fromInputStream(InputStream in, Charset charset) {
+        return fromReader(new InputStreamReader(in, charset));
+    }
+
+    public static State fromChannel(ReadableByteChannel channel, Charset charset) {
+        return fromReader(Channels.newReader(channel, charset));
+    }
+
+    public static State fromByteBuffer(ByteBuffer buffer) {
+        return new State(new ByteSource(buffer), 0, Context.of());
+    }
+
+    public static State fromBytes(byte[] bytes) {
+        return fromByteBuffer(ByteBuffer.wrap(bytes));
+    }
+
+    public static State fromPath(Path path, Charset charset) {
+        if (charset.equals(StandardCharsets.ISO_8859_1)) {
+            return fromPathBytes(path);
         }
+        return new State(new DecodedSource(MappedSource.map(path), charset), 0, Context.of());
+    }
+
+    public static State fromPathBytes(Path path) {
+        return new State(MappedSource.map(path), 0, Context.of());
     }
 
     public static Tuple<State, Optional<Character>> nextChar(State state) {
-        var linePos = state.position().line();
-        var colPos = state.position().column();
-        if (linePos >= state.lines().size()) {
+        if (state.isEnd()) {
             return Tuple.of(state, Optional.empty());
         } else {
-            var curLine = currentLine(state);
-            Character c;
-            Position newPos;
-            if (colPos < curLine.length()) {
-                c = curLine.charAt(colPos);
-                newPos = incrementColumn(state.position());
-            } else {
-                c = '\n';
-                newPos = incrementLine(state.position());
-            }
-            var newState = new State(state.lines(), newPos);
-            return Tuple.of(newState, Optional.of(c));
+            return Tuple.of(state.at(state.offset() + 1), Optional.of(state.current()));
         }
     }
 
     public static Location getLocationFromState(State state) {
-        return new Location(currentLine(state), state.position().line(), state.position().column());
+        return new Location(state.source(), state.offset());
     }
 }
@@ -0,0 +1,121 @@
+package io.geekya215.peco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.geekya215.peco.Combinator.runOnInput;
+
+public record Lexer(List<Rule> rules) {
+    public Lexer {
+        rules = List.copyOf(rules);
+    }
+
+    public static Lexer of() {
+        return new Lexer(List.of());
+    }
+
+    public Lexer token(char kind, Parser<?> rule) {
+        return new Lexer(append(new Rule(kind, rule, false)));
+    }
+
+    public Lexer skip(Parser<?> rule) {
+        return new Lexer(append(new Rule('\0', rule, true)));
+    }
+
+    public static Parser<CharSequence> kind(char kind, String label) {
+        Supplier<String> labelSupplier = () -> label;
+        Function<State, Result<Tuple<CharSequence, State>>> fn = input -> {
+            if (!input.isEnd() && input.current() == kind && input.source() instanceof TokenStream tokens) {
+                return Result.Success.of(Tuple.of(tokens.text(input.offset()), input.at(input.offset() + 1)));
+            }
+            return Result.Failure.of(labelSupplier, input);
+        };
+        return Parser.of(fn, labelSupplier);
+    }
+
+    public Parser<TokenStream> tokenize() {
+        var firsts = rules.stream().<FirstSet>map(rule -> FirstSet.of(rule.parser())).toList();
+        Supplier<String> label = () -> "token";
+        Function<State, Result<Tuple<TokenStream, State>>> fn = input -> {
+            var source = input.source();
+            var offset = input.offset();
+            var kinds = new char[64];
+            var starts = new long[64];
+            var ends = new long[64];
+            var count = 0;
+            while (!source.isEnd(offset)) {
+                var c = source.charAt(offset);
+                Rule best = null;
+                var bestEnd = offset;
+                for (var i = 0; i < rules.size(); i++) {
+                    var first = firsts.get(i);
+                    if (first != null && !first.canStartWith(c)) {
+                        continue;
+                    }
+                    var res = runOnInput(rules.get(i).parser(), input.at(offset));
+                    if (res instanceof Result.Success<? extends Tuple<?, State>> s && s.getValue().t2().offset() > bestEnd) {
+                        best = rules.get(i);
+                        bestEnd = s.getValue().t2().offset();
+                    }
+                }
+                if (best == null) {
+                    return Result.Failure.of(label, input.at(offset));
+                }
+                if (!best.skip()) {
+                    if (count == kinds.length) {
+                        kinds = Arrays.copyOf(kinds, count * 2);
+                        starts = Arrays.copyOf(starts, count * 2);
+                        ends = Arrays.copyOf(ends, count * 2);
+                    }
+                    kinds[count] = best.kind();
+                    starts[count] = offset;
+                    ends[count] = bestEnd;
+                    count++;
+                }
+                offset = bestEnd;
+            }
+            var tokens = new TokenStream(source, Arrays.copyOf(kinds, count), Arrays.copyOf(starts, count), Arrays.copyOf(ends, count), offset);
+            return Result.Success.of(Tuple.of(tokens, input.at(offset)));
+        };
+        return Parser.of(fn, label);
+    }
+
+    public <A> Parser<A> parser(Parser<A> grammar) {
+        var tokenizer = tokenize();
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var lexed = runOnInput(tokenizer, input);
+            if (!(lexed instanceof Result.Success<Tuple<TokenStream, State>> s)) {
+                return (Result.Failure) lexed;
+            }
+            var tokens = s.getValue().t1();
+            var context = input.context();
+            var committed = context.exchangeCommitted(0);
+            var res = runOnInput(grammar, new State(tokens, 0, context));
+            var tokensCommitted = context.exchangeCommitted(committed);
+            if (tokensCommitted > 0) {
+                context.exchangeCommitted(Math.max(committed, tokens.start(tokensCommitted)));
+            }
+            if (res instanceof Result.Success<Tuple<A, State>> parsed) {
+                var consumed = parsed.getValue().t2().offset();
+                var end = consumed == 0 ? input.offset() : tokens.end(consumed - 1);
+                return Result.Success.of(Tuple.of(parsed.getValue().t1(), input.at(end)));
+            }
+            var failure = (Result.Failure) res;
+            return failure.at(input.at(tokens.start(failure.state().offset())));
+        };
+        return Parser.of(fn, grammar.labelSupplier());
+    }
+
+    private List<Rule> append(Rule rule) {
+        var copy = new ArrayList<Rule>(rules.size() + 1);
+        copy.addAll(rules);
+        copy.add(rule);
+        return copy;
+    }
+
+    public record Rule(char kind, Parser<?> parser, boolean skip) {
+    }
+}
@@ -0,0 +1,48 @@
+package io.geekya215.peco;
+
+final class LineCursor {
+    private final Source source;
+    private long offset;
+    private long line;
+    private long lineStart;
+
+    LineCursor(Source source) {
+        this.source = source;
+    }
+
+    synchronized long line(long offset) {
+        seek(offset);
+        return line;
+    }
+
+    synchronized long column(long offset) {
+        seek(offset);
+        return offset - lineStart;
+    }
+
+    synchronized String lineText(long offset) {
+        seek(offset);
+        var end = lineStart;
+        while (!source.isEnd(end) && source.charAt(end) != '\n') {
+            end++;
+        }
+        if (end > lineStart && source.charAt(end - 1) == '\r') {
+            end--;
+        }
+        return source.slice(lineStart, end).toString();
+    }
+
+    private void seek(long target) {
+        if (target < offset) {
+            offset = 0;
+            line = 0;
+            lineStart = 0;
+        }
+        for (; offset < target && !source.isEnd(offset); offset++) {
+            if (source.charAt(offset) == '\n') {
+                line++;
+                lineStart = offset + 1;
+            }
+        }
+    }
+}
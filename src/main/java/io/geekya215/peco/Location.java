@@ -1,8 +1,17 @@
 package io.geekya215.peco;
 
 public record Location(
-    String currentLine,
-    Integer line,
-    Integer column
+    Source source, long offset
 ) {
+    public long line() {
+        return source.line(offset);
+    }
+
+    public long column() {
+        return source.column(offset);
+    }
+
+    public String currentLine() {
+        return source.lineText(offset);
+    }
 }
@@ -0,0 +1,141 @@
+package io.geekya215.peco;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class MappedSource implements Source {
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private final ByteBuffer[] chunks;
+    private final long size;
+    private final LineCursor lines = new LineCursor(this);
+
+    public MappedSource(ByteBuffer[] chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    public static MappedSource map(Path path) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            var chunks = new ByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+            for (var i = 0; i < chunks.length; i++) {
+                var position = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_MASK + 1, size - position));
+            }
+            return new MappedSource(chunks, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        return this.size;
+    }
+
+    ByteBuffer buffer(long start, long end) {
+        if (start == end) {
+            return ByteBuffer.allocate(0);
+        }
+        var chunk = (int) (start >>> CHUNK_SHIFT);
+        if (chunk == (int) ((end - 1) >>> CHUNK_SHIFT)) {
+            return chunks[chunk].slice((int) (start & CHUNK_MASK), (int) (end - start));
+        }
+        var bytes = new byte[(int) (end - start)];
+        for (var i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) charAt(start + i);
+        }
+        return ByteBuffer.wrap(bytes);
+    }
+
+    public Reader reader(Charset charset) {
+        return Channels.newReader(new ChunkChannel(chunks), charset);
+    }
+
+    @Override
+    public long length() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        return offset >= size;
+    }
+
+    @Override
+    public char charAt(long offset) {
+        return (char) (chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK)) & 0xff);
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        var buffer = buffer(start, end);
+        var bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public long line(long offset) {
+        return lines.line(offset);
+    }
+
+    @Override
+    public long column(long offset) {
+        return lines.column(offset);
+    }
+
+    @Override
+    public String lineText(long offset) {
+        return lines.lineText(offset);
+    }
+
+    private static final class ChunkChannel implements ReadableByteChannel {
+        private final ByteBuffer[] chunks;
+        private int index;
+        private boolean open = true;
+
+        private ChunkChannel(ByteBuffer[] chunks) {
+            this.chunks = new ByteBuffer[chunks.length];
+            for (var i = 0; i < chunks.length; i++) {
+                this.chunks[i] = chunks[i].duplicate();
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer dst) {
+            while (index < chunks.length && !chunks[index].hasRemaining()) {
+                index++;
+            }
+            if (index == chunks.length) {
+                return -1;
+            }
+            var chunk = chunks[index];
+            var n = Math.min(dst.remaining(), chunk.remaining());
+            dst.put(dst.position(), chunk, chunk.position(), n);
+            dst.position(dst.position() + n);
+            chunk.position(chunk.position() + n);
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package io.geekya215.peco;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public sealed interface MemoTable permits MemoTable.Window, MemoTable.Lru, MemoTable.Tracked {
+    static MemoTable window(int size) {
+        return new Window(size);
+    }
+
+    static MemoTable lru(int maxEntries) {
+        return new Lru(maxEntries);
+    }
+
+    Memo lookup(int id, long offset);
+
+    void store(int id, long offset, Memo memo);
+
+    @SuppressWarnings("unchecked")
+    default <A> Result<Tuple<A, State>> get(int id, long offset) {
+        var memo = lookup(id, offset);
+        return memo == null ? null : (Result<Tuple<A, State>>) memo.result();
+    }
+
+    default void put(int id, long offset, Result<?> result) {
+        store(id, offset, new Memo(result, 0, -1));
+    }
+
+    long hits();
+
+    long misses();
+
+    record Memo(Result<?> result, long commits, long committed) {
+    }
+
+    final class Window implements MemoTable {
+        private final int size;
+        private final long[] offsets;
+        private final int[][] ids;
+        private final Memo[][] results;
+        private final int[] counts;
+        private long furthest;
+        private long hits;
+        private long misses;
+
+        public Window(int size) {
+            if (size <= 0) {
+                throw new IllegalArgumentException("window size must be positive");
+            }
+            this.size = size;
+            this.offsets = new long[size];
+            this.ids = new int[size][];
+            this.results = new Memo[size][];
+            this.counts = new int[size];
+            Arrays.fill(this.offsets, -1);
+        }
+
+        @Override
+        public Memo lookup(int id, long offset) {
+            var slot = (int) (offset % size);
+            if (offsets[slot] == offset && offset > furthest - size) {
+                var slotIds = ids[slot];
+                for (var i = 0; i < counts[slot]; i++) {
+                    if (slotIds[i] == id) {
+                        hits++;
+                        return results[slot][i];
+                    }
+                }
+            }
+            misses++;
+            return null;
+        }
+
+        @Override
+        public void store(int id, long offset, Memo memo) {
+            if (offset <= furthest - size) {
+                return;
+            }
+            furthest = Math.max(furthest, offset);
+            var slot = (int) (offset % size);
+            if (offsets[slot] != offset) {
+                offsets[slot] = offset;
+                counts[slot] = 0;
+            }
+            if (ids[slot] == null) {
+                ids[slot] = new int[4];
+                results[slot] = new Memo[4];
+            } else if (counts[slot] == ids[slot].length) {
+                ids[slot] = Arrays.copyOf(ids[slot], counts[slot] * 2);
+                results[slot] = Arrays.copyOf(results[slot], counts[slot] * 2);
+            }
+            ids[slot][counts[slot]] = id;
+            results[slot][counts[slot]] = memo;
+            counts[slot]++;
+        }
+
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            return misses;
+        }
+    }
+
+    final class Lru implements MemoTable {
+        private final Map<Key, Memo> entries;
+        private long hits;
+        private long misses;
+
+        public Lru(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("max entries must be positive");
+            }
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Memo> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        @Override
+        public Memo lookup(int id, long offset) {
+            var memo = entries.get(new Key(id, offset));
+            if (memo != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+            return memo;
+        }
+
+        @Override
+        public void store(int id, long offset, Memo memo) {
+            entries.put(new Key(id, offset), memo);
+        }
+
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            return misses;
+        }
+
+        private record Key(int id, long offset) {
+        }
+    }
+
+    final class Tracked implements MemoTable {
+        private final int maxEntries;
+        private final SplittableRandom random = new SplittableRandom(0);
+        private Node root;
+        private int size;
+        private Source source;
+        private int version;
+        private long tick;
+        private long[] pending = new long[16];
+        private int depth;
+        private long furthest;
+        private long hits;
+        private long misses;
+
+        Tracked(int maxEntries) {
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("max entries must be positive");
+            }
+            this.maxEntries = maxEntries;
+        }
+
+        Source track(Source source) {
+            this.source = new TrackingSource(source, this);
+            return this.source;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void edit(long offset, long removed, long inserted) {
+            var head = split(root, offset, Integer.MIN_VALUE);
+            var tail = split(head[1], offset + removed, Integer.MIN_VALUE);
+            size -= count(tail[0]);
+            if (tail[1] != null) {
+                tail[1].shift(inserted - removed);
+            }
+            root = merge(invalidate(head[0], offset), tail[1]);
+            version++;
+            depth = 0;
+        }
+
+        @Override
+        public Memo lookup(int id, long offset) {
+            var node = find(root, id, offset);
+            if (node != null) {
+                hits++;
+                furthest = Math.max(furthest, node.extent);
+                return node.memo(source, version);
+            }
+            misses++;
+            if (depth == pending.length) {
+                pending = Arrays.copyOf(pending, depth * 2);
+            }
+            pending[depth++] = furthest;
+            furthest = offset;
+            return null;
+        }
+
+        @Override
+        public void store(int id, long offset, Memo memo) {
+            var extent = furthest;
+            if (depth > 0) {
+                furthest = Math.max(pending[--depth], extent);
+            }
+            root = insert(remove(root, id, offset), new Node(id, offset, memo, extent, version, ++tick, random.nextInt()));
+            size++;
+            if (size > maxEntries) {
+                root = evict(root);
+                size--;
+            }
+        }
+
+        @Override
+        public long hits() {
+            return hits;
+        }
+
+        @Override
+        public long misses() {
+            return misses;
+        }
+
+        private void touch(long offset) {
+            if (offset > furthest) {
+                furthest = offset;
+            }
+        }
+
+        private Node find(Node node, int id, long offset) {
+            if (node == null) {
+                return null;
+            }
+            node.push();
+            var c = node.compare(id, offset);
+            Node found;
+            if (c == 0) {
+                found = node;
+                node.used = ++tick;
+            } else {
+                found = find(c < 0 ? node.left : node.right, id, offset);
+            }
+            if (found != null) {
+                node.pull();
+            }
+            return found;
+        }
+
+        private Node insert(Node node, Node entry) {
+            if (node == null) {
+                return entry;
+            }
+            if (entry.priority > node.priority) {
+                var parts = split(node, entry.offset, entry.id);
+                entry.left = parts[0];
+                entry.right = parts[1];
+                entry.pull();
+                return entry;
+            }
+            node.push();
+            if (node.compare(entry.id, entry.offset) < 0) {
+                node.left = insert(node.left, entry);
+            } else {
+                node.right = insert(node.right, entry);
+            }
+            node.pull();
+            return node;
+        }
+
+        private Node remove(Node node, int id, long offset) {
+            if (node == null) {
+                return null;
+            }
+            node.push();
+            var c = node.compare(id, offset);
+            if (c == 0) {
+                size--;
+                return merge(node.left, node.right);
+            } else if (c < 0) {
+                node.left = remove(node.left, id, offset);
+            } else {
+                node.right = remove(node.right, id, offset);
+            }
+            node.pull();
+            return node;
+        }
+
+        private Node invalidate(Node node, long offset) {
+            if (node == null || node.maxExtent < offset) {
+                return node;
+            }
+            node.push();
+            node.left = invalidate(node.left, offset);
+            node.right = invalidate(node.right, offset);
+            if (node.extent >= offset) {
+                size--;
+                return merge(node.left, node.right);
+            }
+            node.pull();
+            return node;
+        }
+
+        private Node evict(Node node) {
+            node.push();
+            if (node.used == node.minUsed) {
+                return merge(node.left, node.right);
+            } else if (node.left != null && node.left.minUsed == node.minUsed) {
+                node.left = evict(node.left);
+            } else {
+                node.right = evict(node.right);
+            }
+            node.pull();
+            return node;
+        }
+
+        private static Node[] split(Node node, long offset, int id) {
+            if (node == null) {
+                return new Node[2];
+            }
+            node.push();
+            Node[] parts;
+            if (node.compare(id, offset) > 0) {
+                parts = split(node.right, offset, id);
+                node.right = parts[0];
+                parts[0] = node;
+            } else {
+                parts = split(node.left, offset, id);
+                node.left = parts[1];
+                parts[1] = node;
+            }
+            node.pull();
+            return parts;
+        }
+
+        private static Node merge(Node a, Node b) {
+            if (a == null) {
+                return b;
+            } else if (b == null) {
+                return a;
+            } else if (a.priority > b.priority) {
+                a.push();
+                a.right = merge(a.right, b);
+                a.pull();
+                return a;
+            } else {
+                b.push();
+                b.left = merge(a, b.left);
+                b.pull();
+                return b;
+            }
+        }
+
+        private static int count(Node node) {
+            return node == null ? 0 : 1 + count(node.left) + count(node.right);
+        }
+
+        private static final class Node {
+            private final int id;
+            private final int priority;
+            private long offset;
+            private long extent;
+            private long used;
+            private Memo memo;
+            private long origin;
+            private int version;
+            private long shift;
+            private long maxExtent;
+            private long minUsed;
+            private Node left;
+            private Node right;
+
+            private Node(int id, long offset, Memo memo, long extent, int version, long used, int priority) {
+                this.id = id;
+                this.priority = priority;
+                this.offset = offset;
+                this.extent = extent;
+                this.used = used;
+                this.memo = memo;
+                this.origin = offset;
+                this.version = version;
+                this.maxExtent = extent;
+                this.minUsed = used;
+            }
+
+            private int compare(int id, long offset) {
+                var c = Long.compare(offset, this.offset);
+                return c != 0 ? c : Integer.compare(id, this.id);
+            }
+
+            private void shift(long delta) {
+                offset += delta;
+                extent += delta;
+                maxExtent += delta;
+                shift += delta;
+            }
+
+            private void push() {
+                if (shift != 0) {
+                    if (left != null) {
+                        left.shift(shift);
+                    }
+                    if (right != null) {
+                        right.shift(shift);
+                    }
+                    shift = 0;
+                }
+            }
+
+            private void pull() {
+                maxExtent = extent;
+                minUsed = used;
+                if (left != null) {
+                    maxExtent = Math.max(maxExtent, left.maxExtent);
+                    minUsed = Math.min(minUsed, left.minUsed);
+                }
+                if (right != null) {
+                    maxExtent = Math.max(maxExtent, right.maxExtent);
+                    minUsed = Math.min(minUsed, right.minUsed);
+                }
+            }
+
+            @SuppressWarnings("unchecked")
+            private Memo memo(Source source, int version) {
+                if (this.version == version && origin == offset) {
+                    return memo;
+                }
+                var delta = offset - origin;
+                Result<?> moved;
+                if (memo.result() instanceof Result.Success<?> s) {
+                    var t = (Tuple<Object, State>) s.getValue();
+                    var state = t.t2();
+                    moved = Result.Success.of(Tuple.of(t.t1(), new State(source, state.offset() + delta, state.context())));
+                } else {
+                    var failure = (Result.Failure) memo.result();
+                    var state = failure.state();
+                    moved = failure.at(new State(source, state.offset() + delta, state.context()));
+                }
+                var committed = memo.commits() == 0 ? memo.committed() : memo.committed() + delta;
+                memo = new Memo(moved, memo.commits(), committed);
+                origin = offset;
+                this.version = version;
+                return memo;
+            }
+        }
+
+        private record TrackingSource(Source source, Tracked table) implements Source {
+            @Override
+            public boolean isEnd(long offset) {
+                table.touch(offset);
+                return source.isEnd(offset);
+            }
+
+            @Override
+            public char charAt(long offset) {
+                table.touch(offset);
+                return source.charAt(offset);
+            }
+
+            @Override
+            public CharSequence slice(long start, long end) {
+                table.touch(end - 1);
+                return source.slice(start, end);
+            }
+
+            @Override
+            public long line(long offset) {
+                return source.line(offset);
+            }
+
+            @Override
+            public long column(long offset) {
+                return source.column(offset);
+            }
+
+            @Override
+            public String lineText(long offset) {
+                return source.lineText(offset);
+            }
+        }
+    }
+}
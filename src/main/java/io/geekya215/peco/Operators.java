@@ -0,0 +1,48 @@
+package io.geekya215.peco;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+public record Operators<A>(
+    List<Operator<UnaryOperator<A>>> prefix,
+    List<Operator<UnaryOperator<A>>> postfix,
+    List<Operator<BinaryOperator<A>>> infix
+) {
+    public Operators {
+        prefix = List.copyOf(prefix);
+        postfix = List.copyOf(postfix);
+        infix = List.copyOf(infix);
+    }
+
+    public static <A> Operators<A> of() {
+        return new Operators<>(List.of(), List.of(), List.of());
+    }
+
+    public Operators<A> prefix(int power, Parser<UnaryOperator<A>> op) {
+        return new Operators<>(append(prefix, new Operator<>(op, power, false)), postfix, infix);
+    }
+
+    public Operators<A> postfix(int power, Parser<UnaryOperator<A>> op) {
+        return new Operators<>(prefix, append(postfix, new Operator<>(op, power, false)), infix);
+    }
+
+    public Operators<A> infixLeft(int power, Parser<BinaryOperator<A>> op) {
+        return new Operators<>(prefix, postfix, append(infix, new Operator<>(op, power, false)));
+    }
+
+    public Operators<A> infixRight(int power, Parser<BinaryOperator<A>> op) {
+        return new Operators<>(prefix, postfix, append(infix, new Operator<>(op, power, true)));
+    }
+
+    private static <T> List<T> append(List<T> list, T element) {
+        var copy = new ArrayList<T>(list.size() + 1);
+        copy.addAll(list);
+        copy.add(element);
+        return copy;
+    }
+
+    public record Operator<F>(Parser<F> parser, int power, boolean rightAssociative) {
+    }
+}
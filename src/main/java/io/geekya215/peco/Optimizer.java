@@ -0,0 +1,199 @@
+package io.geekya215.peco;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.geekya215.peco.Combinator.*;
+
+final class Optimizer {
+    private final Map<Parser<?>, Parser<?>> optimized = new IdentityHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    synchronized <A> Parser<A> optimize(Parser<A> parser) {
+        var cached = (Parser<A>) optimized.get(parser);
+        if (cached == null) {
+            cached = rewrite(parser);
+            optimized.put(parser, cached);
+        }
+        return cached;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <A> Parser<A> rewrite(Parser<A> parser) {
+        var grammar = parser.grammar();
+        if (grammar instanceof Grammar.Map map) {
+            return relabel(rewriteMap(map), parser);
+        } else if (grammar instanceof Grammar.Seq seq) {
+            return relabel((Parser<A>) rewriteSeq(seq), parser);
+        } else if (grammar instanceof Grammar.Sequence sequence) {
+            return relabel((Parser<A>) rewriteSequence(sequence), parser);
+        } else if (grammar instanceof Grammar.Alt alt) {
+            return relabel(rewriteAlt(alt), parser);
+        } else if (grammar instanceof Grammar.Many many) {
+            var element = optimize(many.element());
+            var separator = many.separator() == null ? null : optimize(many.separator());
+            Parser<A> rebuilt;
+            if (separator == null) {
+                rebuilt = (Parser<A>) (many.nonEmpty() ? many1(element) : many(element));
+            } else {
+                rebuilt = (Parser<A>) (many.nonEmpty() ? sepBy1(element, separator) : sepBy(element, separator));
+            }
+            return relabel(rebuilt, parser);
+        } else if (grammar instanceof Grammar.Bind bind) {
+            return relabel(Combinator.bind(bind.f(), optimize(bind.source())), parser);
+        } else if (grammar instanceof Grammar.Ref ref) {
+            return relabel(Combinator.ref(new Resolved<>(this, ref.target())), parser);
+        } else if (grammar instanceof Grammar.Wrap wrap) {
+            return relabel((Parser<A>) wrap.combinator().apply(optimize(wrap.inner())), parser);
+        } else {
+            return parser;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A, B> Parser<B> rewriteMap(Grammar.Map<A, B> map) {
+        var source = optimize(map.source());
+        if (source.grammar() instanceof Grammar.Map<?, A> inner) {
+            return composeMap((Grammar.Map<Object, A>) inner, map.f());
+        } else {
+            return Combinator.map(map.f(), source);
+        }
+    }
+
+    private <A, B, C> Parser<C> composeMap(Grammar.Map<A, B> inner, Function<B, C> f) {
+        var g = inner.f();
+        if (g instanceof Constant<A, B> constant) {
+            return Combinator.map(new Constant<>(f.apply(constant.value())), inner.source());
+        } else {
+            return Combinator.map(g.andThen(f), inner.source());
+        }
+    }
+
+    private <A, B> Parser<?> rewriteSeq(Grammar.Seq<A, B> seq) {
+        var first = optimize(seq.first());
+        var second = optimize(seq.second());
+        var firstLiteral = literal(first);
+        var secondLiteral = literal(second);
+        if (firstLiteral != null && secondLiteral != null) {
+            var value = Tuple.of(firstLiteral.value(), secondLiteral.value());
+            return Combinator.map(new Constant<>(value), string(firstLiteral.text() + secondLiteral.text()));
+        } else {
+            return then(first, second);
+        }
+    }
+
+    private <A> Parser<?> rewriteSequence(Grammar.Sequence<A> sequence) {
+        var parsers = new ArrayList<Parser<A>>(sequence.parsers().size());
+        var text = new StringBuilder();
+        var values = new ArrayList<Object>(sequence.parsers().size());
+        var fusible = true;
+        for (var p : sequence.parsers()) {
+            var optimizedParser = optimize(p);
+            var literal = literal(optimizedParser);
+            if (literal == null) {
+                fusible = false;
+            } else if (fusible) {
+                text.append(literal.text());
+                values.add(literal.value());
+            }
+            parsers.add(optimizedParser);
+        }
+        if (fusible && !parsers.isEmpty()) {
+            return Combinator.map(new Constant<>(List.copyOf(values)), string(text.toString()));
+        } else {
+            return Combinator.sequence(parsers);
+        }
+    }
+
+    private <A> Parser<A> rewriteAlt(Grammar.Alt<A> alt) {
+        var alternatives = new ArrayList<Parser<A>>();
+        flatten(alt, alternatives);
+        var merged = new ArrayList<Parser<A>>(alternatives.size());
+        for (var alternative : alternatives) {
+            var last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null
+                && last.grammar() instanceof Grammar.Satisfy s1
+                && alternative.grammar() instanceof Grammar.Satisfy s2) {
+                merged.set(merged.size() - 1, mergeSatisfy(s1, s2));
+            } else {
+                merged.add(alternative);
+            }
+        }
+        return merged.size() == 1 ? merged.get(0) : choice(merged);
+    }
+
+    private <A> void flatten(Grammar.Alt<A> alt, List<Parser<A>> alternatives) {
+        for (var alternative : alt.alternatives()) {
+            var optimizedAlternative = optimize(alternative);
+            if (optimizedAlternative.grammar() instanceof Grammar.Alt<A> nested) {
+                alternatives.addAll(nested.alternatives());
+            } else {
+                alternatives.add(optimizedAlternative);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <A> Parser<A> mergeSatisfy(Grammar.Satisfy s1, Grammar.Satisfy s2) {
+        var predicate = CharClass.of(s1.predicate()).union(CharClass.of(s2.predicate()));
+        Supplier<String> label = () -> s1.label().get() + " or " + s2.label().get();
+        return (Parser<A>) satisfy(predicate, label);
+    }
+
+    private static Fragment literal(Parser<?> parser) {
+        var grammar = parser.grammar();
+        if (grammar instanceof Grammar.Literal literal) {
+            return new Fragment(literal.text(), literal.text());
+        } else if (grammar instanceof Grammar.Satisfy satisfy
+            && satisfy.predicate() instanceof CharClass charClass
+            && charClass.single() >= 0) {
+            var c = (char) charClass.single();
+            return new Fragment(String.valueOf(c), c);
+        } else if (grammar instanceof Grammar.Map<?, ?> map
+            && map.f() instanceof Constant<?, ?> constant
+            && map.source().grammar() instanceof Grammar.Literal literal) {
+            return new Fragment(literal.text(), constant.value());
+        } else {
+            return null;
+        }
+    }
+
+    private static <A> Parser<A> relabel(Parser<A> rebuilt, Parser<A> original) {
+        return rebuilt == original ? original : Parser.of(rebuilt.fn(), original.labelSupplier(), rebuilt.grammar());
+    }
+
+    private record Fragment(String text, Object value) {
+    }
+
+    private record Constant<A, B>(B value) implements Function<A, B> {
+        @Override
+        public B apply(A a) {
+            return value;
+        }
+    }
+
+    private static final class Resolved<A> implements Supplier<Parser<A>> {
+        private final Optimizer optimizer;
+        private final Supplier<Parser<A>> target;
+        private volatile Parser<A> resolved;
+
+        private Resolved(Optimizer optimizer, Supplier<Parser<A>> target) {
+            this.optimizer = optimizer;
+            this.target = target;
+        }
+
+        @Override
+        public Parser<A> get() {
+            var parser = resolved;
+            if (parser == null) {
+                parser = optimizer.optimize(target.get());
+                resolved = parser;
+            }
+            return parser;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.geekya215.peco;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import static io.geekya215.peco.Combinator.runOnInput;
+
+public final class Parallel {
+    private static final int MIN_CHUNK = 64 * 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    public static <A> List<Result<Tuple<A, State>>> parse(Parser<A> record, CharSequence text) {
+        return parse(record, Splitter.lines(), Source.of(text), ForkJoinPool.commonPool());
+    }
+
+    public static <A> List<Result<Tuple<A, State>>> parse(Parser<A> record, Path path, Charset charset) {
+        var mapped = MappedSource.map(path);
+        var source = charset.equals(StandardCharsets.ISO_8859_1) ? mapped : new DecodedSource(mapped, charset);
+        var pool = ForkJoinPool.commonPool();
+        return partition(record, Splitter.lines(), source, chunkSize(mapped.size(), pool), pool);
+    }
+
+    public static <A> List<Result<Tuple<A, State>>> parse(Parser<A> record, Splitter splitter, Source source, ForkJoinPool pool) {
+        if (source.length() < 0) {
+            throw new IllegalArgumentException("source length must be known to partition it; use the Reader overload for streams");
+        }
+        return partition(record, splitter, source, chunkSize(source.length(), pool), pool);
+    }
+
+    private static long chunkSize(long length, ForkJoinPool pool) {
+        return Math.max(MIN_CHUNK, length / ((long) pool.getParallelism() * CHUNKS_PER_WORKER));
+    }
+
+    private static <A> List<Result<Tuple<A, State>>> partition(Parser<A> record, Splitter splitter, Source source, long chunkSize, ForkJoinPool pool) {
+        var tasks = new ArrayList<ForkJoinTask<List<Result<Tuple<A, State>>>>>();
+        var start = 0L;
+        while (!source.isEnd(start)) {
+            var end = start + chunkSize;
+            if (!source.isEnd(end)) {
+                end = splitter.next(source, splitter.end(source, end));
+            } else {
+                end = Long.MAX_VALUE;
+            }
+            var from = start;
+            var to = end;
+            tasks.add(pool.submit(() -> parseRange(record, splitter, source, from, to)));
+            start = end;
+        }
+        return join(tasks);
+    }
+
+    public static <A> List<Result<Tuple<A, State>>> parse(Parser<A> record, Splitter splitter, Reader reader, ForkJoinPool pool) {
+        var inFlight = new ArrayDeque<ForkJoinTask<List<Result<Tuple<A, State>>>>>();
+        var results = new ArrayList<Result<Tuple<A, State>>>();
+        var buffer = new StringBuilder();
+        var pending = Source.of(buffer);
+        var chars = new char[MIN_CHUNK];
+        var base = 0L;
+        var baseLine = 0L;
+        var scan = 0L;
+        var cut = 0L;
+        var eof = false;
+        try {
+            while (!eof) {
+                var n = reader.read(chars);
+                if (n < 0) {
+                    eof = true;
+                } else {
+                    buffer.append(chars, 0, n);
+                }
+                if (buffer.length() < MIN_CHUNK && !eof) {
+                    continue;
+                }
+                while (scan < buffer.length()) {
+                    var next = splitter.next(pending, splitter.end(pending, scan));
+                    if (next >= buffer.length() || next <= scan) {
+                        break;
+                    }
+                    scan = next;
+                    if (buffer.charAt((int) next - 1) == '\n') {
+                        cut = next;
+                    }
+                }
+                if (eof) {
+                    cut = buffer.length();
+                } else if (cut == 0) {
+                    continue;
+                }
+                var text = buffer.substring(0, (int) cut);
+                var chunk = Source.of(text);
+                var shifted = new ShiftedSource(chunk, base, baseLine);
+                var from = base;
+                var to = base + cut;
+                inFlight.add(pool.submit(() -> parseRange(record, splitter, shifted, from, to)));
+                while (inFlight.size() > pool.getParallelism() * 2) {
+                    results.addAll(inFlight.poll().join());
+                }
+                baseLine += chunk.line(cut);
+                base += cut;
+                buffer.delete(0, (int) cut);
+                scan -= cut;
+                cut = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        while (!inFlight.isEmpty()) {
+            results.addAll(inFlight.poll().join());
+        }
+        return results;
+    }
+
+    private static <A> List<Result<Tuple<A, State>>> parseRange(Parser<A> record, Splitter splitter, Source source, long from, long to) {
+        var results = new ArrayList<Result<Tuple<A, State>>>();
+        var start = from;
+        while (start < to && !source.isEnd(start)) {
+            var end = splitter.end(source, start);
+            if (end > start) {
+                results.add(parseRecord(record, source, start, end));
+            }
+            var next = splitter.next(source, end);
+            if (next <= start) {
+                break;
+            }
+            start = next;
+        }
+        return results;
+    }
+
+    private static <A> Result<Tuple<A, State>> parseRecord(Parser<A> record, Source source, long start, long end) {
+        var input = new State(new BoundedSource(source, end), start, Context.of());
+        var res = runOnInput(record, input);
+        if (res instanceof Result.Success<Tuple<A, State>> s && s.getValue().t2().offset() != end) {
+            Supplier<String> label = () -> "end of record";
+            return Result.Failure.of(label, s.getValue().t2());
+        }
+        return res;
+    }
+
+    private static <T> List<T> join(List<ForkJoinTask<List<T>>> tasks) {
+        var results = new ArrayList<T>();
+        for (var task : tasks) {
+            results.addAll(task.join());
+        }
+        return results;
+    }
+
+    private record ShiftedSource(Source source, long base, long baseLine) implements Source {
+        @Override
+        public boolean isEnd(long offset) {
+            return source.isEnd(offset - base);
+        }
+
+        @Override
+        public long length() {
+            return base + source.length();
+        }
+
+        @Override
+        public char charAt(long offset) {
+            return source.charAt(offset - base);
+        }
+
+        @Override
+        public CharSequence slice(long start, long end) {
+            return source.slice(start - base, end - base);
+        }
+
+        @Override
+        public long line(long offset) {
+            return baseLine + source.line(offset - base);
+        }
+
+        @Override
+        public long column(long offset) {
+            return source.column(offset - base);
+        }
+
+        @Override
+        public String lineText(long offset) {
+            return source.lineText(offset - base);
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package io.geekya215.peco;
 
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public record Parser<A>(
     Function<State, Result<Tuple<A, State>>> fn,
-    String label
+    Supplier<String> labelSupplier,
+    Grammar<A> grammar
 ) {
     public static <A> Parser<A> of(
         Function<State, Result<Tuple<A, State>>> fn,
         String label
     ) {
-        return new Parser<>(fn, label);
+        return new Parser<>(fn, () -> label, new Grammar.Opaque<>());
+    }
+
+    public static <A> Parser<A> of(
+        Function<State, Result<Tuple<A, State>>> fn,
+        Supplier<String> label
+    ) {
+        return new Parser<>(fn, label, new Grammar.Opaque<>());
+    }
+
+    public static <A> Parser<A> of(
+        Function<State, Result<Tuple<A, State>>> fn,
+        Supplier<String> label,
+        Grammar<A> grammar
+    ) {
+        return new Parser<>(fn, label, grammar);
+    }
+
+    public String label() {
+        return labelSupplier.get();
     }
 }
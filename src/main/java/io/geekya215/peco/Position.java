@@ -1,6 +0,0 @@
-package io.geekya215.peco;
-
-public record Position(
-    Integer line, Integer column
-) {
-}
\ No newline at end of file
@@ -0,0 +1,209 @@
+package io.geekya215.peco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.geekya215.peco.Combinator.*;
+
+public final class Profiler {
+    private final boolean timed;
+    private final Map<Parser<?>, Parser<?>> instrumented = new IdentityHashMap<>();
+    private final Map<Parser<?>, Stats> stats = new IdentityHashMap<>();
+    private final ThreadLocal<Timer> timers = ThreadLocal.withInitial(Timer::new);
+
+    private Profiler(boolean timed) {
+        this.timed = timed;
+    }
+
+    public static Profiler of() {
+        return new Profiler(false);
+    }
+
+    public static Profiler timed() {
+        return new Profiler(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized <A> Parser<A> instrument(Parser<A> parser) {
+        var cached = (Parser<A>) instrumented.get(parser);
+        if (cached == null) {
+            var s = new Stats(parser.labelSupplier());
+            stats.put(parser, s);
+            cached = count(rebuild(parser), s);
+            instrumented.put(parser, cached);
+        }
+        return cached;
+    }
+
+    public synchronized List<Entry> entries() {
+        var entries = new ArrayList<Entry>(stats.size());
+        for (var s : stats.values()) {
+            if (s.invocations.sum() > 0) {
+                entries.add(new Entry(s.label.get(), s.invocations.sum(), s.successes.sum(), s.failures.sum(),
+                    s.consumed.sum(), s.backtracks.sum(), s.selfNanos.sum(), s.totalNanos.sum()));
+            }
+        }
+        var order = timed
+            ? Comparator.comparingLong(Entry::selfNanos).thenComparingLong(Entry::invocations)
+            : Comparator.comparingLong(Entry::invocations).thenComparingLong(Entry::consumed);
+        entries.sort(order.reversed());
+        return entries;
+    }
+
+    public synchronized String report() {
+        var sb = new StringBuilder(String.format("%12s %10s %10s %12s %10s %12s %12s  %s%n",
+            "invocations", "successes", "failures", "consumed", "backtracks", "self(us)", "total(us)", "parser"));
+        for (var e : entries()) {
+            sb.append(String.format("%12d %10d %10d %12d %10d %12d %12d  %s%n",
+                e.invocations(), e.successes(), e.failures(), e.consumed(), e.backtracks(),
+                e.selfNanos() / 1000, e.totalNanos() / 1000, e.label()));
+        }
+        return sb.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <A> Parser<A> rebuild(Parser<A> parser) {
+        var grammar = parser.grammar();
+        if (grammar instanceof Grammar.Map map) {
+            return (Parser<A>) Combinator.map(map.f(), instrument(map.source()));
+        } else if (grammar instanceof Grammar.Seq seq) {
+            return (Parser<A>) then(instrument(seq.first()), instrument(seq.second()));
+        } else if (grammar instanceof Grammar.Sequence<?> sequence) {
+            return (Parser<A>) Combinator.sequence((List) sequence.parsers().stream().map(this::instrument).toList());
+        } else if (grammar instanceof Grammar.Alt<?> alt) {
+            var alternatives = new ArrayList<Parser<A>>(alt.alternatives().size());
+            for (var alternative : alt.alternatives()) {
+                alternatives.add(probe(instrument((Parser<A>) alternative), stats.get(alternative)));
+            }
+            return choice(alternatives);
+        } else if (grammar instanceof Grammar.Many many) {
+            var element = instrument(many.element());
+            var separator = many.separator() == null ? null : instrument(many.separator());
+            if (separator == null) {
+                return (Parser<A>) (many.nonEmpty() ? many1(element) : many(element));
+            } else {
+                return (Parser<A>) (many.nonEmpty() ? sepBy1(element, separator) : sepBy(element, separator));
+            }
+        } else if (grammar instanceof Grammar.Bind bind) {
+            return Combinator.bind(bind.f(), instrument(bind.source()));
+        } else if (grammar instanceof Grammar.Ref<A> ref) {
+            return Combinator.ref(new Resolved<>(this, ref.target()));
+        } else if (grammar instanceof Grammar.Wrap wrap) {
+            return (Parser<A>) wrap.combinator().apply(instrument(wrap.inner()));
+        } else {
+            return parser;
+        }
+    }
+
+    private <A> Parser<A> count(Parser<A> parser, Stats s) {
+        Function<State, Result<Tuple<A, State>>> fn = timed
+            ? input -> {
+                var timer = timers.get();
+                var start = System.nanoTime();
+                timer.enter();
+                var res = runOnInput(parser, input);
+                var elapsed = System.nanoTime() - start;
+                var children = timer.exit(elapsed);
+                s.totalNanos.add(elapsed);
+                s.selfNanos.add(elapsed - children);
+                record(s, input, res);
+                return res;
+            }
+            : input -> {
+                var res = runOnInput(parser, input);
+                record(s, input, res);
+                return res;
+            };
+        return Parser.of(fn, s.label, new Grammar.Wrap<>(parser, p -> count(p, s), false));
+    }
+
+    private static <A> void record(Stats s, State input, Result<Tuple<A, State>> res) {
+        s.invocations.increment();
+        if (res instanceof Result.Success<Tuple<A, State>> success) {
+            s.successes.increment();
+            s.consumed.add(success.getValue().t2().offset() - input.offset());
+        } else {
+            s.failures.increment();
+        }
+    }
+
+    private static <A> Parser<A> probe(Parser<A> alternative, Stats s) {
+        Function<State, Result<Tuple<A, State>>> fn = input -> {
+            var res = runOnInput(alternative, input);
+            if (res instanceof Result.Failure failure && failure.state().offset() > input.offset()) {
+                s.backtracks.increment();
+            }
+            return res;
+        };
+        return Parser.of(fn, alternative.labelSupplier(), new Grammar.Wrap<>(alternative, p -> probe(p, s), false));
+    }
+
+    public record Entry(
+        String label, long invocations, long successes, long failures,
+        long consumed, long backtracks, long selfNanos, long totalNanos
+    ) {
+    }
+
+    private static final class Stats {
+        private final Supplier<String> label;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder consumed = new LongAdder();
+        private final LongAdder backtracks = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private Stats(Supplier<String> label) {
+            this.label = label;
+        }
+    }
+
+    private static final class Timer {
+        private long[] childNanos = new long[64];
+        private int depth;
+
+        private void enter() {
+            if (depth == childNanos.length) {
+                childNanos = Arrays.copyOf(childNanos, depth * 2);
+            }
+            childNanos[depth++] = 0;
+        }
+
+        private long exit(long elapsed) {
+            var children = childNanos[--depth];
+            if (depth > 0) {
+                childNanos[depth - 1] += elapsed;
+            }
+            return children;
+        }
+    }
+
+    private static final class Resolved<A> implements Supplier<Parser<A>> {
+        private final Profiler profiler;
+        private final Supplier<Parser<A>> target;
+        private volatile Parser<A> resolved;
+
+        private Resolved(Profiler profiler, Supplier<Parser<A>> target) {
+            this.profiler = profiler;
+            this.target = target;
+        }
+
+        @Override
+        public Parser<A> get() {
+            var parser = resolved;
+            if (parser == null) {
+                parser = profiler.instrument(target.get());
+                resolved = parser;
+            }
+            return parser;
+        }
+    }
+}
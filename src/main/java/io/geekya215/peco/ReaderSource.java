@@ -0,0 +1,135 @@
+package io.geekya215.peco;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+public final class ReaderSource implements Source {
+    private static final int CHUNK = 8192;
+
+    private final Reader reader;
+    private final int window;
+    private final char[] ring;
+    private final int mask;
+    private long start;
+    private long end;
+    private long released;
+    private long startLine;
+    private long startLineOffset;
+    private boolean eof;
+
+    public ReaderSource(Reader reader, int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.reader = reader;
+        this.window = window;
+        this.ring = new char[Integer.highestOneBit(window + CHUNK - 1) << 1];
+        this.mask = this.ring.length - 1;
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        while (offset >= end && !eof) {
+            fill();
+        }
+        return offset >= end;
+    }
+
+    @Override
+    public char charAt(long offset) {
+        if (isEnd(offset)) {
+            throw new IndexOutOfBoundsException(String.format("offset %d is past the end of input", offset));
+        }
+        checkRetained(offset);
+        return ring[(int) offset & mask];
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        checkRetained(start);
+        var sb = new StringBuilder((int) (end - start));
+        for (var offset = start; offset < end; offset++) {
+            sb.append(charAt(offset));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long line(long offset) {
+        checkRetained(offset);
+        var line = startLine;
+        for (var i = start; i < Math.min(offset, end); i++) {
+            if (ring[(int) i & mask] == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    @Override
+    public long column(long offset) {
+        return offset - lineStart(offset);
+    }
+
+    @Override
+    public String lineText(long offset) {
+        var from = Math.max(lineStart(offset), start);
+        var to = from;
+        while (to < end && ring[(int) to & mask] != '\n') {
+            to++;
+        }
+        if (to > from && ring[(int) (to - 1) & mask] == '\r') {
+            to--;
+        }
+        return slice(from, to).toString();
+    }
+
+    @Override
+    public void release(long offset) {
+        released = Math.max(released, offset);
+    }
+
+    private long lineStart(long offset) {
+        checkRetained(offset);
+        for (var i = Math.min(offset, end) - 1; i >= start; i--) {
+            if (ring[(int) i & mask] == '\n') {
+                return i + 1;
+            }
+        }
+        return startLineOffset;
+    }
+
+    private void checkRetained(long offset) {
+        if (offset < start) {
+            throw new IllegalStateException(
+                String.format("offset %d has been released from the stream buffer (retained from %d)", offset, start));
+        }
+    }
+
+    private void fill() {
+        drop(Math.max(released, end - window));
+        var position = (int) end & mask;
+        var free = ring.length - (int) (end - start);
+        var length = Math.min(ring.length - position, free);
+        try {
+            var n = reader.read(ring, position, length);
+            if (n < 0) {
+                eof = true;
+            } else {
+                end += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drop(long until) {
+        for (; start < until && start < end; start++) {
+            if (ring[(int) start & mask] == '\n') {
+                startLine++;
+                startLineOffset = start + 1;
+            }
+        }
+    }
+}
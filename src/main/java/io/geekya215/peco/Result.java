@@ -1,5 +1,7 @@
 package io.geekya215.peco;
 
+import java.util.function.Supplier;
+
 public sealed interface Result<A> permits Result.Failure, Result.Success {
     final class Success<A> implements Result<A> {
         private final A value;
@@ -25,29 +27,64 @@ public sealed interface Result<A> permits Result.Failure, Result.Success {
     }
 
     final class Failure implements Result {
-        private final String label;
+        private final Supplier<String> label;
         private final String error;
-        private final Location location;
+        private final State state;
 
-        public Failure(String label, String error, Location location) {
+        public Failure(Supplier<String> label, String error, State state) {
             this.label = label;
             this.error = error;
-            this.location = location;
+            this.state = state;
         }
 
         public static Failure of(String label, String error, Location location) {
-            return new Failure(label, error, location);
+            return new Failure(() -> label, error, new State(location.source(), location.offset(), Context.of()));
+        }
+
+        public static Failure of(Supplier<String> label, String error, State state) {
+            return new Failure(label, error, state);
+        }
+
+        public static Failure of(Supplier<String> label, State state) {
+            return new Failure(label, null, state);
+        }
+
+        public String label() {
+            return label.get();
+        }
+
+        public String error() {
+            if (error != null) {
+                return error;
+            } else if (state.isEnd()) {
+                return "No more input";
+            } else {
+                return String.format("Unexpected '%c'", state.current());
+            }
+        }
+
+        public State state() {
+            return state;
+        }
+
+        Failure at(State state) {
+            return new Failure(label, error, state);
+        }
+
+        public Location location() {
+            return Input.getLocationFromState(state);
         }
 
         @Override
         public String toString() {
+            var location = location();
             var errorLine = location.currentLine();
             var linePos = location.line();
             var colPos = location.column();
             var indentFormat = colPos == 0 ? "%s" : String.format("%%%ds", colPos);
 
-            var failureCaret = String.format(indentFormat + "^%s", "", error);
-            return String.format("Line:%d Col:%d Error parsing %s\n%s\n%s", linePos + 1, colPos + 1, label, errorLine, failureCaret);
+            var failureCaret = String.format(indentFormat + "^%s", "", error());
+            return String.format("Line:%d Col:%d Error parsing %s\n%s\n%s", linePos + 1, colPos + 1, label(), errorLine, failureCaret);
         }
     }
 }
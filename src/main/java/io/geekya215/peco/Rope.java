@@ -0,0 +1,158 @@
+package io.geekya215.peco;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+final class Rope implements Source {
+    private final Node root;
+    private final LineCursor lines = new LineCursor(this);
+    private volatile Cursor cursor;
+
+    private Rope(Node root) {
+        this.root = root;
+    }
+
+    static Rope of(String text) {
+        return new Rope(text.isEmpty() ? null : leaf(text));
+    }
+
+    Rope edit(long offset, long removed, String inserted) {
+        var head = split(root, offset);
+        var tail = split(head[1], removed);
+        var middle = inserted.isEmpty() ? null : leaf(inserted);
+        return new Rope(merge(merge(head[0], middle), tail[1]));
+    }
+
+    @Override
+    public long length() {
+        return length(root);
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        return offset >= length(root);
+    }
+
+    @Override
+    public char charAt(long offset) {
+        var cursor = locate(offset);
+        return cursor.node().text().charAt(cursor.node().start() + (int) (offset - cursor.start()));
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        var sb = new StringBuilder((int) (end - start));
+        var offset = start;
+        while (offset < end) {
+            var cursor = locate(offset);
+            var node = cursor.node();
+            var from = node.start() + (int) (offset - cursor.start());
+            var n = (int) Math.min(end - offset, node.end() - from);
+            sb.append(node.text(), from, from + n);
+            offset += n;
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public long line(long offset) {
+        return lines.line(offset);
+    }
+
+    @Override
+    public long column(long offset) {
+        return lines.column(offset);
+    }
+
+    @Override
+    public String lineText(long offset) {
+        return lines.lineText(offset);
+    }
+
+    @Override
+    public String toString() {
+        return slice(0, length(root)).toString();
+    }
+
+    private Cursor locate(long offset) {
+        var cursor = this.cursor;
+        if (cursor != null && offset >= cursor.start() && offset < cursor.start() + cursor.node().size()) {
+            return cursor;
+        }
+        if (offset < 0 || offset >= length(root)) {
+            throw new IndexOutOfBoundsException(String.format("offset %d is outside the text of length %d", offset, length(root)));
+        }
+        var node = root;
+        var start = 0L;
+        while (true) {
+            var left = length(node.left());
+            if (offset < start + left) {
+                node = node.left();
+            } else if (offset < start + left + node.size()) {
+                cursor = new Cursor(start + left, node);
+                this.cursor = cursor;
+                return cursor;
+            } else {
+                start += left + node.size();
+                node = node.right();
+            }
+        }
+    }
+
+    private static Node leaf(String text) {
+        return new Node(text, 0, text.length(), null, null, ThreadLocalRandom.current().nextInt());
+    }
+
+    private static long length(Node node) {
+        return node == null ? 0 : node.length();
+    }
+
+    private static Node[] split(Node node, long at) {
+        if (node == null) {
+            return new Node[2];
+        }
+        var left = length(node.left());
+        if (at <= left) {
+            var parts = split(node.left(), at);
+            parts[1] = node.with(parts[1], node.right());
+            return parts;
+        }
+        if (at >= left + node.size()) {
+            var parts = split(node.right(), at - left - node.size());
+            parts[0] = node.with(node.left(), parts[0]);
+            return parts;
+        }
+        var cut = node.start() + (int) (at - left);
+        return new Node[]{
+            new Node(node.text(), node.start(), cut, node.left(), null, node.priority()),
+            new Node(node.text(), cut, node.end(), null, node.right(), node.priority())};
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a.priority() > b.priority()) {
+            return a.with(a.left(), merge(a.right(), b));
+        } else {
+            return b.with(merge(a, b.left()), b.right());
+        }
+    }
+
+    private record Node(String text, int start, int end, Node left, Node right, int priority, long length) {
+        Node(String text, int start, int end, Node left, Node right, int priority) {
+            this(text, start, end, left, right, priority, Rope.length(left) + (end - start) + Rope.length(right));
+        }
+
+        int size() {
+            return end - start;
+        }
+
+        Node with(Node left, Node right) {
+            return new Node(text, start, end, left, right, priority);
+        }
+    }
+
+    private record Cursor(long start, Node node) {
+    }
+}
@@ -0,0 +1,26 @@
+package io.geekya215.peco;
+
+public interface Source {
+    static Source of(CharSequence text) {
+        return new CharSequenceSource(text == null ? "" : text);
+    }
+
+    boolean isEnd(long offset);
+
+    default long length() {
+        return -1;
+    }
+
+    char charAt(long offset);
+
+    CharSequence slice(long start, long end);
+
+    long line(long offset);
+
+    long column(long offset);
+
+    String lineText(long offset);
+
+    default void release(long offset) {
+    }
+}
@@ -0,0 +1,46 @@
+package io.geekya215.peco;
+
+public interface Splitter {
+    static Splitter lines() {
+        return new Splitter() {
+            @Override
+            public long end(Source source, long start) {
+                var end = start;
+                while (!source.isEnd(end) && source.charAt(end) != '\n') {
+                    end++;
+                }
+                return end > start && source.charAt(end - 1) == '\r' ? end - 1 : end;
+            }
+
+            @Override
+            public long next(Source source, long end) {
+                if (!source.isEnd(end) && source.charAt(end) == '\r') {
+                    end++;
+                }
+                return source.isEnd(end) ? end : end + 1;
+            }
+        };
+    }
+
+    static Splitter of(char delimiter) {
+        return new Splitter() {
+            @Override
+            public long end(Source source, long start) {
+                var end = start;
+                while (!source.isEnd(end) && source.charAt(end) != delimiter) {
+                    end++;
+                }
+                return end;
+            }
+
+            @Override
+            public long next(Source source, long end) {
+                return source.isEnd(end) ? end : end + 1;
+            }
+        };
+    }
+
+    long end(Source source, long start);
+
+    long next(Source source, long end);
+}
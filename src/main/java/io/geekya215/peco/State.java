@@ -1,8 +1,17 @@
 package io.geekya215.peco;
 
-import java.util.List;
-
 public record State(
-    List<String> lines, Position position
+    Source source, long offset, Context context
 ) {
-}
\ No newline at end of file
+    public boolean isEnd() {
+        return source.isEnd(offset);
+    }
+
+    public char current() {
+        return source.charAt(offset);
+    }
+
+    public State at(long offset) {
+        return new State(source, offset, context);
+    }
+}
@@ -0,0 +1,85 @@
+package io.geekya215.peco;
+
+public final class TokenStream implements Source {
+    private final Source source;
+    private final char[] kinds;
+    private final long[] starts;
+    private final long[] ends;
+    private final long end;
+
+    TokenStream(Source source, char[] kinds, long[] starts, long[] ends, long end) {
+        this.source = source;
+        this.kinds = kinds;
+        this.starts = starts;
+        this.ends = ends;
+        this.end = end;
+    }
+
+    public Source source() {
+        return this.source;
+    }
+
+    public int size() {
+        return this.kinds.length;
+    }
+
+    public char kind(long index) {
+        return this.kinds[(int) index];
+    }
+
+    public long start(long index) {
+        return index < this.kinds.length ? this.starts[(int) index] : this.end;
+    }
+
+    public long end(long index) {
+        return index < this.kinds.length ? this.ends[(int) index] : this.end;
+    }
+
+    public CharSequence text(long index) {
+        return this.source.slice(start(index), end(index));
+    }
+
+    public Location location(long index) {
+        return new Location(this.source, start(index));
+    }
+
+    @Override
+    public boolean isEnd(long offset) {
+        return offset >= this.kinds.length;
+    }
+
+    @Override
+    public long length() {
+        return this.kinds.length;
+    }
+
+    @Override
+    public char charAt(long offset) {
+        return this.kinds[(int) offset];
+    }
+
+    @Override
+    public CharSequence slice(long start, long end) {
+        return new String(this.kinds, (int) start, (int) (end - start));
+    }
+
+    @Override
+    public long line(long offset) {
+        return this.source.line(start(offset));
+    }
+
+    @Override
+    public long column(long offset) {
+        return this.source.column(start(offset));
+    }
+
+    @Override
+    public String lineText(long offset) {
+        return this.source.lineText(start(offset));
+    }
+
+    @Override
+    public void release(long offset) {
+        this.source.release(start(offset));
+    }
+}
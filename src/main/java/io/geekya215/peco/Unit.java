@@ -0,0 +1,5 @@
+package io.geekya215.peco;
+
+public enum Unit {
+    UNIT
+}
@@ -0,0 +1,46 @@
+package io.geekya215.peco;
+
+import io.geekya215.peco.json.JValue;
+import io.geekya215.peco.json.Json;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchTest {
+    @Test
+    void testRunAllKeepsOrder() {
+        var inputs = IntStream.range(0, 2000).mapToObj(i -> "{\"id\": " + i + ", \"tags\": [\"a\", \"b\"]}").toList();
+        var results = runAll(Json.jValue, inputs, 16);
+        assertEquals(inputs.size(), results.size());
+        for (var i = 0; i < inputs.size(); i++) {
+            assertEquals(((Result.Success<Tuple<JValue, State>>) run(Json.jValue, inputs.get(i))).getValue().t1(),
+                ((Result.Success<Tuple<JValue, State>>) results.get(i)).getValue().t1());
+        }
+    }
+
+    @Test
+    void testRunAllStreamIsBounded() {
+        var pulled = new AtomicInteger();
+        var inputs = Stream.generate(() -> "ab").limit(100).peek(__ -> pulled.incrementAndGet());
+        try (var results = runAll(string("ab"), inputs, 4)) {
+            var first = results.limit(10).toList();
+            assertEquals(10, first.size());
+            assertTrue(first.stream().allMatch(r -> r instanceof Result.Success));
+            assertTrue(pulled.get() <= 14);
+        }
+    }
+
+    @Test
+    void testRunAllReportsFailuresInPlace() {
+        var results = runAll(string("ab"), List.of("ab", "x", "ab"), 2);
+        assertEquals(List.of(Result.Success.class, Result.Failure.class, Result.Success.class),
+            results.stream().map(Object::getClass).toList());
+    }
+}
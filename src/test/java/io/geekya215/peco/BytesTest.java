@@ -0,0 +1,103 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static io.geekya215.peco.Bytes.*;
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class BytesTest {
+    @Test
+    void testFixedWidthIntegers() {
+        var parser = sequence(List.of(
+            map(Number::longValue, int32(ByteOrder.BIG_ENDIAN)),
+            map(Number::longValue, int32(ByteOrder.LITTLE_ENDIAN)),
+            map(Number::longValue, uint16(ByteOrder.BIG_ENDIAN)),
+            int64(ByteOrder.LITTLE_ENDIAN)));
+        var bytes = new byte[]{0, 0, 1, 2, 2, 1, 0, 0, (byte) 0xff, (byte) 0xfe, 1, 0, 0, 0, 0, 0, 0, 0};
+        var actualResult = runOnInput(parser, Input.fromBytes(bytes));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(List.of(258L, 258L, 65534L, 1L), ((Result.Success<Tuple<List<Long>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testDirectBuffer() {
+        var buffer = ByteBuffer.allocateDirect(8);
+        buffer.putInt(7).putInt(-1).flip();
+        var actualResult = runOnInput(then(int32(ByteOrder.BIG_ENDIAN), uint32(ByteOrder.BIG_ENDIAN)), Input.fromByteBuffer(buffer));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of(7, 4294967295L), ((Result.Success<Tuple<Tuple<Integer, Long>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testVarint() {
+        var parser = then(varint(), zigZagVarint());
+        var actualResult = runOnInput(parser, Input.fromBytes(new byte[]{(byte) 0xac, 0x02, 0x03}));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of(300L, -2L), ((Result.Success<Tuple<Tuple<Long, Long>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testLengthPrefixedFrame() {
+        var parser = then(frame(uint8(), many(byteSatisfy(b -> b != 0, "non-zero"))), byteValue(0));
+        var actualResult = runOnInput(parser, Input.fromBytes(new byte[]{2, 5, 6, 0}));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of(List.of((byte) 5, (byte) 6), (byte) 0), ((Result.Success<Tuple<Tuple<List<Byte>, Byte>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testNestedFrameIsZeroCopy() {
+        var bytes = new byte[]{4, 2, 7, 8, 9};
+        var actualResult = runOnInput(frame(uint8(), frame(uint8(), take(2))), Input.fromBytes(bytes));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var buffer = ((Result.Success<Tuple<ByteBuffer, State>>) actualResult).getValue().t1();
+        assertSame(bytes, buffer.array());
+        assertEquals(2, buffer.arrayOffset() + buffer.position());
+        assertEquals(2, buffer.remaining());
+    }
+
+    @Test
+    void testTruncatedInput() {
+        var actualResult = runOnInput(then(byteLiteral((byte) 0xca, (byte) 0xfe), int32(ByteOrder.BIG_ENDIAN)), Input.fromBytes(new byte[]{(byte) 0xca, (byte) 0xfe, 1, 2}));
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("int32 BE", ((Result.Failure) actualResult).label());
+        assertEquals("No more input", ((Result.Failure) actualResult).error());
+        assertEquals(4, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testVarintLimits() {
+        var max = new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, 1};
+        var actualResult = runOnInput(varint(), Input.fromBytes(max));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(-1L, ((Result.Success<Tuple<Long, State>>) actualResult).getValue().t1());
+
+        var overflow = new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, 2};
+        actualResult = runOnInput(varint(), Input.fromBytes(overflow));
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("Varint overflows 64 bits", ((Result.Failure) actualResult).error());
+
+        var tooLong = new byte[]{-1, -1, -1, -1, -1, -1, -1, -1, -1, -127, 0};
+        actualResult = runOnInput(varint(), Input.fromBytes(tooLong));
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("Varint longer than 10 bytes", ((Result.Failure) actualResult).error());
+    }
+
+    @Test
+    void testFrameLengthOutOfRange() {
+        var bytes = new byte[]{(byte) 0x80, 0, 0, 0, 1, 2, 3};
+        var actualResult = runOnInput(frame(uint32(ByteOrder.BIG_ENDIAN)), Input.fromBytes(bytes));
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(4, ((Result.Failure) actualResult).state().offset());
+
+        bytes = new byte[]{(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 1, 2, 3};
+        actualResult = runOnInput(frame(int32(ByteOrder.BIG_ENDIAN)), Input.fromBytes(bytes));
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("Negative length -1", ((Result.Failure) actualResult).error());
+    }
+}
@@ -0,0 +1,54 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CharClassTest {
+    @Test
+    void testOfString() {
+        var charClass = CharClass.of("a?é");
+        assertTrue(charClass.test('a'));
+        assertTrue(charClass.test('?'));
+        assertTrue(charClass.test('é'));
+        assertFalse(charClass.test('b'));
+        assertFalse(charClass.test('è'));
+    }
+
+    @Test
+    void testOfListCharacter() {
+        var charClass = CharClass.of(List.of('x', '~', '喵'));
+        assertTrue(charClass.test('x'));
+        assertTrue(charClass.test('~'));
+        assertTrue(charClass.test('喵'));
+        assertFalse(charClass.test('y'));
+    }
+
+    @Test
+    void testDigitMatchesCharacterIsDigit() {
+        for (char c = 0; c < 0x3000; c++) {
+            assertEquals(Character.isDigit(c), CharClass.DIGIT.test(c));
+        }
+    }
+
+    @Test
+    void testHexDigit() {
+        assertTrue(CharClass.HEX_DIGIT.test('0'));
+        assertTrue(CharClass.HEX_DIGIT.test('f'));
+        assertTrue(CharClass.HEX_DIGIT.test('F'));
+        assertFalse(CharClass.HEX_DIGIT.test('g'));
+        assertFalse(CharClass.HEX_DIGIT.test('G'));
+    }
+
+    @Test
+    void testUnion() {
+        var charClass = CharClass.range('a', 'c').union(CharClass.of("é"));
+        assertTrue(charClass.test('b'));
+        assertTrue(charClass.test('é'));
+        assertFalse(charClass.test('d'));
+    }
+}
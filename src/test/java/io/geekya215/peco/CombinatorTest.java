@@ -2,6 +2,7 @@ package io.geekya215.peco;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.StringReader;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -178,4 +179,195 @@ public class CombinatorTest {
         assertEquals(Result.Success.class, actualResult.getClass());
         assertEquals(List.of('a', 'a', 'a'), ((Result.Success<Tuple<List<Character>, State>>) actualResult).getValue().t1());
     }
+
+    @Test
+    void testManyCharacterALongInput() {
+        var parser = many(character('a'));
+        var actualResult = run(parser, "a".repeat(100_000) + "b");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(100_000, ((Result.Success<Tuple<List<Character>, State>>) actualResult).getValue().t1().size());
+    }
+
+    @Test
+    void testCharacterASepBy1CharacterCommaTrailingComma() {
+        var parser = sepBy1(character('a'), character(','));
+        var actualResult = run(parser, "a,a,");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var t = ((Result.Success<Tuple<List<Character>, State>>) actualResult).getValue();
+        assertEquals(List.of('a', 'a'), t.t1());
+        assertEquals(3, t.t2().offset());
+    }
+
+    @Test
+    void testTakeWhileDigit() {
+        var parser = takeWhile(CharClass.DIGIT);
+        var actualResult = run(parser, "123abc");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals("123", ((Result.Success<Tuple<CharSequence, State>>) actualResult).getValue().t1().toString());
+    }
+
+    @Test
+    void testTakeWhile1DigitNoMatch() {
+        var parser = takeWhile1(CharClass.DIGIT, "digit");
+        var actualResult = run(parser, "abc");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+    }
+
+    @Test
+    void testSkipManyStringAb() {
+        var parser = discardL(skipMany(string("ab")), character('c'));
+        var actualResult = run(parser, "ababc");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals('c', ((Result.Success<Tuple<Character, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testLexemeCharacterA() {
+        var parser = then(lexeme(character('a')), character('b'));
+        var actualResult = run(parser, "a \n\tb");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of('a', 'b'), ((Result.Success<Tuple<Tuple<Character, Character>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testFailureLabelIsRenderedOnDemand() {
+        var calls = new int[1];
+        var parser = or(satisfy(c -> c == 'a', () -> {
+            calls[0]++;
+            return "'a'";
+        }), character('b'));
+        var actualResult = run(parser, "c");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(0, calls[0]);
+        var failure = (Result.Failure) actualResult;
+        assertEquals("'b'", failure.label());
+        assertEquals("Unexpected 'c'", failure.error());
+        assertEquals(0, failure.location().column());
+        assertEquals(0, calls[0]);
+    }
+
+    @Test
+    void testChoiceDispatchesOnFirstCharacter() {
+        var calls = new int[3];
+        var parsers = List.of(string("ab"), string("cd"), string("ef"));
+        var counted = new java.util.ArrayList<Parser<String>>();
+        for (var i = 0; i < parsers.size(); i++) {
+            var index = i;
+            var p = parsers.get(i);
+            counted.add(Parser.of(input -> {
+                calls[index]++;
+                return runOnInput(p, input);
+            }, p.labelSupplier(), p.grammar()));
+        }
+        var actualResult = run(choice(counted), "efg");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals("ef", ((Result.Success<Tuple<String, State>>) actualResult).getValue().t1());
+        assertEquals(List.of(0, 0, 1), List.of(calls[0], calls[1], calls[2]));
+    }
+
+    @Test
+    void testChoiceKeepsNullableAlternative() {
+        var parser = choice(List.of(string("ab"), pure("none"), string("cd")));
+        var actualResult = run(parser, "cd");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals("none", ((Result.Success<Tuple<String, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testChoiceWithNoMatchingAlternative() {
+        var parser = choice(List.of(string("ab"), string("cd")));
+        var actualResult = run(parser, "x");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("Unexpected 'x'", ((Result.Failure) actualResult).error());
+    }
+
+    @Test
+    void testCommitPreventsBacktracking() {
+        var parser = or(discardL(commit(string("let")), string(" x")), string("letter"));
+        var actualResult = run(parser, "letter");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("\" x\"", ((Result.Failure) actualResult).label());
+        assertEquals(3, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testAttemptRestoresBacktracking() {
+        var parser = or(attempt(discardL(commit(string("let")), string(" x"))), string("letter"));
+        var actualResult = run(parser, "letter");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals("letter", ((Result.Success<Tuple<String, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testCommittedElementFailsMany() {
+        var element = discardL(commit(character('[')), character(']'));
+        var actualResult = run(many(element), "[][x");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(3, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testDispatchKeepsLeadingCut() {
+        var committed = discardL(cut(), string("ab"));
+        var parser = choice(List.of(committed, string("cd"), string("ef")));
+        var actualResult = run(parser, "cd");
+        assertEquals(run(or(committed, or(string("cd"), string("ef"))), "cd").getClass(), actualResult.getClass());
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("\"ab\"", ((Result.Failure) actualResult).label());
+        assertEquals(Result.Success.class, run(choice(List.of(commit(string("ab")), string("cd"))), "cd").getClass());
+    }
+
+    @Test
+    void testCutReleasesInput() {
+        var state = Input.fromString("abc");
+        var actualResult = runOnInput(then(string("ab"), cut()), state);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(2, state.context().committed());
+    }
+
+    @Test
+    void testAttemptReleasesInnerCommitOnSuccess() {
+        var source = new ReleaseRecorder(new ReaderSource(new StringReader("abcdef"), 16), new long[1]);
+        var actualResult = runOnInput(then(attempt(commit(string("abcd"))), string("ef")), new State(source, 0, Context.of()));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(4, source.released()[0]);
+    }
+
+    private record ReleaseRecorder(Source source, long[] released) implements Source {
+        @Override
+        public boolean isEnd(long offset) {
+            return source.isEnd(offset);
+        }
+
+        @Override
+        public char charAt(long offset) {
+            return source.charAt(offset);
+        }
+
+        @Override
+        public CharSequence slice(long start, long end) {
+            return source.slice(start, end);
+        }
+
+        @Override
+        public long line(long offset) {
+            return source.line(offset);
+        }
+
+        @Override
+        public long column(long offset) {
+            return source.column(offset);
+        }
+
+        @Override
+        public String lineText(long offset) {
+            return source.lineText(offset);
+        }
+
+        @Override
+        public void release(long offset) {
+            released[0] = Math.max(released[0], offset);
+            source.release(offset);
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package io.geekya215.peco;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class EventsTest {
+    private static List<RecordedEvent> record(Runnable action, String... events) throws IOException {
+        var path = Files.createTempFile("peco", ".jfr");
+        try (var recording = new Recording()) {
+            for (var event : events) {
+                recording.enable(event).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(path);
+            return RecordingFile.readAllEvents(path);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testParseEvent() throws IOException {
+        var parser = setLabel(many(traced(setLabel(string("ab"), "pair"))), "pairs");
+        var events = record(() -> run(parser, "ababx"), "io.geekya215.peco.Parse", "io.geekya215.peco.SubParser");
+        var parses = events.stream().filter(e -> e.getEventType().getName().equals("io.geekya215.peco.Parse")).toList();
+        assertEquals(1, parses.size());
+        assertEquals("pairs", parses.get(0).getString("parser"));
+        assertEquals(5L, parses.get(0).getLong("inputLength"));
+        assertEquals(4L, parses.get(0).getLong("consumed"));
+        assertEquals(true, parses.get(0).getBoolean("success"));
+        assertEquals(3L, events.stream().filter(e -> e.getEventType().getName().equals("io.geekya215.peco.SubParser")).count());
+    }
+
+    @Test
+    void testMemoEvent() throws IOException {
+        var digit = memo(digit());
+        var parser = or(then(digit, character('a')), then(digit, character('b')));
+        var events = record(() -> run(parser, "1b", MemoTable.window(8)), "io.geekya215.peco.Memo").stream()
+            .filter(e -> e.getEventType().getName().equals("io.geekya215.peco.Memo")).toList();
+        assertEquals(1, events.size());
+        assertEquals(1L, events.get(0).getLong("hits"));
+        assertEquals(1L, events.get(0).getLong("misses"));
+        assertEquals(0.5, events.get(0).getDouble("hitRate"));
+    }
+}
@@ -0,0 +1,78 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExpressionTest {
+    private static final Parser<Long> number = map(s -> Long.parseLong(s.toString()), takeWhile1(CharClass.DIGIT, "number"));
+
+    private static Parser<BinaryOperator<Long>> binary(char c, BinaryOperator<Long> f) {
+        return map(__ -> f, character(c));
+    }
+
+    private static Parser<UnaryOperator<Long>> unary(char c, UnaryOperator<Long> f) {
+        return map(__ -> f, character(c));
+    }
+
+    private static final Parser<Long> arithmetic = expression(number, Operators.<Long>of()
+        .infixLeft(10, binary('+', Long::sum))
+        .infixLeft(10, binary('-', (a, b) -> a - b))
+        .infixLeft(20, binary('*', (a, b) -> a * b))
+        .infixRight(30, binary('^', (a, b) -> (long) Math.pow(a, b)))
+        .prefix(25, unary('-', a -> -a))
+        .postfix(40, unary('!', a -> a <= 1 ? 1 : a * (a - 1))));
+
+    private static long eval(Parser<Long> parser, String text) {
+        var actualResult = run(parser, text);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        return ((Result.Success<Tuple<Long, State>>) actualResult).getValue().t1();
+    }
+
+    @Test
+    void testChainl1IsLeftAssociative() {
+        assertEquals(-4, eval(chainl1(number, binary('-', (a, b) -> a - b)), "1-2-3"));
+    }
+
+    @Test
+    void testChainr1IsRightAssociative() {
+        assertEquals(2, eval(chainr1(number, binary('-', (a, b) -> a - b)), "1-2-3"));
+    }
+
+    @Test
+    void testPrecedenceAndAssociativity() {
+        assertEquals(7, eval(arithmetic, "1+2*3"));
+        assertEquals(-4, eval(arithmetic, "1-2-3"));
+        assertEquals(512, eval(arithmetic, "2^3^2"));
+        assertEquals(-8, eval(arithmetic, "-2^3"));
+        assertEquals(8, eval(arithmetic, "-3+2*3!+-1"));
+    }
+
+    @Test
+    void testTrailingOperatorIsLeftUnconsumed() {
+        var actualResult = run(arithmetic, "1+2+");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(3, ((Result.Success<Tuple<Long, State>>) actualResult).getValue().t2().offset());
+    }
+
+    @Test
+    void testLongFlatExpression() {
+        var text = "1" + "+1".repeat(200000);
+        assertEquals(200001, eval(arithmetic, text));
+        assertEquals(200001, eval(chainl1(number, binary('+', Long::sum)), text));
+        assertEquals(200001, eval(chainr1(number, binary('+', Long::sum)), text));
+    }
+
+    @Test
+    void testEmptyOperatorAndOperandStop() {
+        var operand = or(number, pure(0L));
+        var juxtapose = Combinator.<BinaryOperator<Long>>pure(Long::sum);
+        assertEquals(12, eval(chainl1(operand, juxtapose), "12"));
+        assertEquals(12, eval(chainr1(operand, juxtapose), "12"));
+        assertEquals(12, eval(expression(operand, Operators.<Long>of().infixLeft(10, juxtapose)), "12"));
+    }
+}
@@ -0,0 +1,85 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalTest {
+    private static final Parser<List<String>> words =
+        many(memo(lexeme(map(CharSequence::toString, takeWhile1(CharClass.ALPHA_NUM, "word")))));
+
+    private static final String text = IntStream.range(0, 100).mapToObj(i -> "word" + i).collect(Collectors.joining(" "));
+
+    @Test
+    void testEditReparsesOnlyTouchedEntries() {
+        var incremental = Incremental.of(words, text);
+        incremental.parse();
+        var misses = incremental.memo().misses();
+        var offset = text.indexOf("word50") + 2;
+        var actualResult = incremental.edit(offset, 2, "XY");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(((Result.Success<Tuple<List<String>, State>>) run(words, incremental.text())).getValue().t1(),
+            ((Result.Success<Tuple<List<String>, State>>) actualResult).getValue().t1());
+        assertEquals("woXY50", ((Result.Success<Tuple<List<String>, State>>) actualResult).getValue().t1().get(50));
+        assertTrue(incremental.memo().misses() - misses <= 2);
+    }
+
+    @Test
+    void testInsertionShiftsLaterEntries() {
+        var incremental = Incremental.of(words, text);
+        incremental.parse();
+        var misses = incremental.memo().misses();
+        var actualResult = incremental.edit(0, 0, "first ");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var values = ((Result.Success<Tuple<List<String>, State>>) actualResult).getValue();
+        assertEquals(101, values.t1().size());
+        assertEquals("first", values.t1().get(0));
+        assertEquals(incremental.text().length(), values.t2().offset());
+        assertTrue(incremental.memo().misses() - misses <= 2);
+    }
+
+    @Test
+    void testEditAtEndInvalidatesEndOfInputChecks() {
+        var incremental = Incremental.of(words, "a b");
+        incremental.parse();
+        var actualResult = incremental.edit(3, 0, " c");
+        assertEquals(List.of("a", "b", "c"), ((Result.Success<Tuple<List<String>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testBoundedTable() {
+        var incremental = Incremental.of(words, text, 32);
+        incremental.parse();
+        assertTrue(((MemoTable.Tracked) incremental.memo()).size() <= 32);
+        var actualResult = incremental.edit(text.indexOf("word99"), 6, "last");
+        assertEquals("last", ((Result.Success<Tuple<List<String>, State>>) actualResult).getValue().t1().get(99));
+        assertTrue(((MemoTable.Tracked) incremental.memo()).size() <= 32);
+    }
+
+    @Test
+    void testRandomEditsMatchFullParse() {
+        var random = new Random(42);
+        var incremental = Incremental.of(words, text);
+        var expected = new StringBuilder(text);
+        incremental.parse();
+        for (var i = 0; i < 200; i++) {
+            var offset = random.nextInt(expected.length() + 1);
+            var removed = random.nextInt(Math.min(8, expected.length() - offset) + 1);
+            var inserted = random.nextBoolean() ? " " : "ab" + i;
+            expected.replace(offset, offset + removed, inserted);
+            var actualResult = incremental.edit(offset, removed, inserted);
+            assertEquals(expected.toString(), incremental.text());
+            var expectedValue = ((Result.Success<Tuple<List<String>, State>>) run(words, expected.toString())).getValue();
+            var actualValue = ((Result.Success<Tuple<List<String>, State>>) actualResult).getValue();
+            assertEquals(expectedValue.t1(), actualValue.t1());
+            assertEquals(expectedValue.t2().offset(), actualValue.t2().offset());
+        }
+    }
+}
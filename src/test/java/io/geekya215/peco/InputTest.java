@@ -0,0 +1,140 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InputTest {
+    @Test
+    void testStringBuilderInput() {
+        var parser = string("hello");
+        var actualResult = run(parser, new StringBuilder("hello world!"));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(5, ((Result.Success<Tuple<String, State>>) actualResult).getValue().t2().offset());
+    }
+
+    @Test
+    void testCharBufferInput() {
+        var parser = then(string("ab"), newline());
+        var actualResult = run(parser, CharBuffer.wrap("ab\ncd"));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of("ab", '\n'), ((Result.Success<Tuple<Tuple<String, Character>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testLocationOnSecondLine() {
+        var state = Input.fromString("first\r\nsecond\nthird").at(10);
+        var location = Input.getLocationFromState(state);
+        assertEquals(1, location.line());
+        assertEquals(3, location.column());
+        assertEquals("second", location.currentLine());
+    }
+
+    @Test
+    void testFailureRendering() {
+        var parser = then(string("ab\n"), character('x'));
+        var actualResult = run(parser, "ab\ncd");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("Line:2 Col:1 Error parsing 'x'\ncd\n^Unexpected 'c'", actualResult.toString());
+    }
+
+    @Test
+    void testReaderInputAcrossRefills() {
+        var text = "x".repeat(20000) + "\nab";
+        var parser = then(skipWhile(CharClass.of("x\n")), character('c'));
+        var actualResult = runOnInput(parser, Input.fromReader(new StringReader(text), 16));
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        var location = ((Result.Failure) actualResult).location();
+        assertEquals(1, location.line());
+        assertEquals(0, location.column());
+        assertEquals("ab", location.currentLine());
+    }
+
+    @Test
+    void testInputStreamInput() {
+        var parser = then(string("héllo"), newline());
+        var in = new ByteArrayInputStream("héllo\n".getBytes(StandardCharsets.UTF_8));
+        var actualResult = runOnInput(parser, Input.fromInputStream(in, StandardCharsets.UTF_8));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of("héllo", '\n'), ((Result.Success<Tuple<Tuple<String, Character>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testBacktrackPastWindow() {
+        var text = "a".repeat(20000) + "b";
+        var parser = or(discardL(skipWhile(CharClass.of("a")), string("c")), string("aaa"));
+        assertThrows(IllegalStateException.class, () -> runOnInput(parser, Input.fromReader(new StringReader(text), 16)));
+    }
+
+    @Test
+    void testMappedAsciiFile() throws IOException {
+        var path = Files.createTempFile("peco", ".txt");
+        try {
+            Files.writeString(path, "abc\r\ndef");
+            var state = Input.fromPathBytes(path);
+            assertEquals(MappedSource.class, state.source().getClass());
+            var actualResult = runOnInput(then(string("abc\r\n"), string("dex")), state);
+            assertEquals(Result.Failure.class, actualResult.getClass());
+            assertEquals("Line:2 Col:3 Error parsing \"dex\"\ndef\n  ^Unexpected 'f'", actualResult.toString());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testMappedUtf8FileIsDecoded() throws IOException {
+        var path = Files.createTempFile("peco", ".txt");
+        try {
+            Files.writeString(path, "héllo", StandardCharsets.UTF_8);
+            var actualResult = runOnInput(string("héllo"), Input.fromPath(path, StandardCharsets.UTF_8));
+            assertEquals(Result.Success.class, actualResult.getClass());
+            assertEquals(5, ((Result.Success<Tuple<String, State>>) actualResult).getValue().t2().offset());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testMappedUtf8FileBacktracks() throws IOException {
+        var path = Files.createTempFile("peco", ".txt");
+        try {
+            var text = "a".repeat(200000) + "é";
+            Files.writeString(path, text, StandardCharsets.UTF_8);
+            var a = skipWhile(CharClass.of("a"));
+            var parser = or(discardL(a, string("b")), discardL(a, string("é")));
+            var actualResult = runOnInput(parser, Input.fromPath(path, StandardCharsets.UTF_8));
+            assertEquals(Result.Success.class, actualResult.getClass());
+            assertEquals(200001, ((Result.Success<Tuple<String, State>>) actualResult).getValue().t2().offset());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    void testMappedUtf8FileRandomAccess() throws IOException {
+        var path = Files.createTempFile("peco", ".txt");
+        try {
+            var text = "héllo wörld \uD83D\uDE00\n".repeat(20000);
+            Files.writeString(path, text, StandardCharsets.UTF_8);
+            var source = Input.fromPath(path, StandardCharsets.UTF_8).source();
+            assertEquals(text.charAt(text.length() - 3), source.charAt(text.length() - 3));
+            assertEquals(text.charAt(7), source.charAt(7));
+            assertEquals(text.substring(65530, 131080), source.slice(65530, 131080).toString());
+            assertEquals(text.length(), source.length());
+            assertEquals(text, source.slice(0, text.length()).toString());
+            assertEquals(10000, source.line(text.length() / 2));
+            assertEquals("héllo wörld \uD83D\uDE00", source.lineText(text.length() / 2));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
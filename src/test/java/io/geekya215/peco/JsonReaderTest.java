@@ -0,0 +1,147 @@
+package io.geekya215.peco;
+
+import io.geekya215.peco.json.JValue;
+import io.geekya215.peco.json.JsonReader;
+import io.geekya215.peco.json.JsonReader.Event;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JsonReaderTest {
+    @Test
+    void testEvents() {
+        var reader = JsonReader.of(Input.fromString("{\"a\": [1, true, null], \"b\": {\"c\": \"d\"}, \"e\": {}}"));
+        var events = new ArrayList<Event>();
+        while (reader.hasNext()) {
+            events.add(reader.next());
+        }
+        assertEquals(List.of(
+            Event.START_OBJECT,
+            Event.FIELD_NAME, Event.START_ARRAY, Event.VALUE_NUMBER, Event.VALUE_TRUE, Event.VALUE_NULL, Event.END_ARRAY,
+            Event.FIELD_NAME, Event.START_OBJECT, Event.FIELD_NAME, Event.VALUE_STRING, Event.END_OBJECT,
+            Event.FIELD_NAME, Event.START_OBJECT, Event.END_OBJECT,
+            Event.END_OBJECT), events);
+    }
+
+    @Test
+    void testScalarValues() {
+        var reader = JsonReader.of(Input.fromString("{\"name\": \"peco\", \"size\": -1.5e2}"));
+        assertEquals(Event.START_OBJECT, reader.next());
+        assertEquals(Event.FIELD_NAME, reader.next());
+        assertEquals("name", reader.name());
+        assertEquals(Event.VALUE_STRING, reader.next());
+        assertEquals("peco", reader.stringValue());
+        assertEquals(Event.FIELD_NAME, reader.peek());
+        assertEquals(Event.FIELD_NAME, reader.next());
+        assertEquals("size", reader.name());
+        assertEquals(Event.VALUE_NUMBER, reader.peek());
+        assertEquals(Event.VALUE_NUMBER, reader.next());
+        assertEquals(-150.0, reader.numberValue().doubleValue());
+        assertEquals(Event.END_OBJECT, reader.next());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    void testReadAndSkipValue() {
+        var reader = JsonReader.of(Input.fromString("{\"skip\": {\"x\": [1, 2]}, \"keep\": {\"y\": false}}"));
+        reader.next();
+        reader.next();
+        reader.skipValue();
+        assertEquals(Event.FIELD_NAME, reader.next());
+        assertEquals("keep", reader.name());
+        assertEquals(new JValue.JObject(Map.of("y", new JValue.JBool(false))), reader.readValue());
+        assertEquals(Event.END_OBJECT, reader.next());
+    }
+
+    @Test
+    void testForEachElementStreamsFromReader() {
+        var text = new StringBuilder("[");
+        for (var i = 0; i < 2000; i++) {
+            text.append(i == 0 ? "" : ",\n ").append("{\"id\": ").append(i).append(", \"tags\": [\"a\", \"b\"]}");
+        }
+        text.append("]");
+        var ids = new ArrayList<Double>();
+        var actualResult = JsonReader.forEachElement(Input.fromReader(new StringReader(text.toString()), 64), value -> {
+            var object = (JValue.JObject) value;
+            ids.add(((JValue.JNumber) object.value().get("id")).value());
+        });
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(2000L, ((Result.Success<Tuple<Long, State>>) actualResult).getValue().t1());
+        assertEquals(2000, ids.size());
+        assertEquals(1999.0, ids.get(1999));
+    }
+
+    @Test
+    void testForEachElementFailure() {
+        var actualResult = JsonReader.forEachElement(Input.fromString("[1, 2 3]"), value -> {
+        });
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(6, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testMalformed() {
+        var reader = JsonReader.of(Input.fromString("[1 2]"));
+        reader.next();
+        reader.next();
+        var e = assertThrows(JsonReader.Malformed.class, reader::next);
+        assertEquals(3, e.failure().state().offset());
+    }
+
+    @Test
+    void testPeekRequiresComma() {
+        var reader = JsonReader.of(Input.fromString("[1 2]"));
+        reader.next();
+        reader.next();
+        var e = assertThrows(JsonReader.Malformed.class, reader::peek);
+        assertEquals("','", e.failure().label());
+        assertEquals(3, e.failure().state().offset());
+    }
+
+    @Test
+    void testObjectRequiresComma() {
+        var reader = JsonReader.of(Input.fromString("{\"a\":1 \"b\":2}"));
+        reader.next();
+        reader.next();
+        reader.next();
+        var e = assertThrows(JsonReader.Malformed.class, reader::peek);
+        assertEquals("','", e.failure().label());
+        assertEquals(7, e.failure().state().offset());
+        assertThrows(JsonReader.Malformed.class, reader::next);
+    }
+
+    @Test
+    void testReadValueAtNameDoesNotConsume() {
+        var reader = JsonReader.of(Input.fromString("{\"a\": 1}"));
+        reader.next();
+        var e = assertThrows(JsonReader.Malformed.class, reader::readValue);
+        assertEquals(1, e.failure().state().offset());
+        assertEquals(Event.FIELD_NAME, reader.next());
+        assertEquals("a", reader.name());
+        assertEquals(new JValue.JNumber(1.0), reader.readValue());
+    }
+
+    @Test
+    void testTrailingInput() {
+        var reader = JsonReader.of(Input.fromString("[1] x"));
+        reader.next();
+        reader.next();
+        var e = assertThrows(JsonReader.Malformed.class, reader::next);
+        assertEquals("end of input", e.failure().label());
+        assertEquals(4, e.failure().state().offset());
+        reader = JsonReader.of(Input.fromString("[1]  "));
+        reader.next();
+        reader.next();
+        assertEquals(Event.END_ARRAY, reader.next());
+        assertFalse(reader.hasNext());
+        assertEquals(Result.Failure.class, JsonReader.forEachElement(Input.fromString("[1] 2"), value -> {
+        }).getClass());
+    }
+}
@@ -0,0 +1,85 @@
+package io.geekya215.peco;
+
+import io.geekya215.peco.json.JValue;
+import io.geekya215.peco.json.Json;
+import io.geekya215.peco.json.JsonTape;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static io.geekya215.peco.Combinator.run;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JsonTapeTest {
+    private final Parser<JsonTape> parser = JsonTape.parser;
+
+    private JsonTape tape(String text) {
+        var actualResult = run(parser, text);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        return ((Result.Success<Tuple<JsonTape, State>>) actualResult).getValue().t1();
+    }
+
+    @Test
+    void testMaterializesSameTreeAsGrammar() {
+        var text = "{\"a\": [1, 2.5e1, -0.5], \"b\": {\"c\": \"d\\n\\u0041\"}, \"e\": [], \"f\": {}, \"g\": [true, false, null]}";
+        var expectedResult = ((Result.Success<Tuple<JValue, State>>) run(Json.jValue, text)).getValue().t1();
+        assertEquals(expectedResult, tape(text).root().toJValue());
+    }
+
+    @Test
+    void testLazyAccess() {
+        var root = tape("{\"id\": 42, \"name\": \"peco\", \"tags\": [\"x\", {\"y\": null}], \"ok\": true}").root();
+        assertEquals(JsonTape.Kind.OBJECT, root.kind());
+        assertEquals(4, root.size());
+        assertEquals(42.0, root.get("id").orElseThrow().doubleValue());
+        assertEquals("peco", root.get("name").orElseThrow().stringValue());
+        var tags = root.get("tags").orElseThrow();
+        assertEquals(2, tags.size());
+        assertEquals("x", tags.get(0).stringValue());
+        assertTrue(tags.get(1).get("y").orElseThrow().isNull());
+        assertTrue(root.get("ok").orElseThrow().booleanValue());
+        assertEquals(Optional.empty(), root.get("missing"));
+    }
+
+    @Test
+    void testEscapedKey() {
+        var root = tape("{\"a\\u0062\": 1}").root();
+        assertEquals(1.0, root.get("ab").orElseThrow().doubleValue());
+    }
+
+    @Test
+    void testSurrogates() {
+        var root = tape("[\"\\ud83d\\ude00\"]").root();
+        assertEquals("\ud83d\ude00", root.get(0).stringValue());
+        assertFalse(run(parser, "[\"\\ud83d\"]") instanceof Result.Success);
+        assertFalse(run(parser, "[\"\\ude00\"]") instanceof Result.Success);
+    }
+
+    @Test
+    void testNonAsciiHexDigits() {
+        var actualResult = run(parser, "[\"\\u\u0660\u0660\u0664\u0661\"]");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("hex digit", ((Result.Failure) actualResult).label());
+        assertEquals(4, ((Result.Failure) actualResult).state().offset());
+        assertFalse(run(parser, "[\"\\u00\uff14\uff11\"]") instanceof Result.Success);
+    }
+
+    @Test
+    void testStopsAfterRootValue() {
+        var actualResult = run(parser, "[1] tail");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(3, ((Result.Success<Tuple<JsonTape, State>>) actualResult).getValue().t2().offset());
+    }
+
+    @Test
+    void testFailure() {
+        var actualResult = run(parser, "{\"a\": [1, 2}");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        var failure = (Result.Failure) actualResult;
+        assertEquals("',' or ']'", failure.label());
+        assertEquals(11, failure.state().offset());
+        assertFalse(run(parser, "[01]") instanceof Result.Success);
+    }
+}
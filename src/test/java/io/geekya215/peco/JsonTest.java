@@ -1,15 +1,20 @@
 package io.geekya215.peco;
 
+import io.geekya215.peco.json.JObjectMap;
 import io.geekya215.peco.json.JValue;
 import io.geekya215.peco.json.Json;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 import static io.geekya215.peco.Combinator.run;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class JsonTest {
     private final Parser<JValue> parser = Json.jValue;
@@ -46,6 +51,110 @@ public class JsonTest {
         assertEquals(expectedResult, ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1());
     }
 
+    @Test
+    void testIntegerStaysExact() {
+        var actualResult = run(parser, "9007199254740993");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var number = (JValue.JNumber) ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1();
+        assertTrue(number.isLong());
+        assertEquals(9007199254740993L, number.longValue());
+    }
+
+    @Test
+    void testIntegerBeyondLong() {
+        var actualResult = run(parser, "-123456789012345678901234567890");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var number = (JValue.JNumber) ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1();
+        assertEquals(new BigDecimal("-123456789012345678901234567890"), number.bigDecimalValue());
+    }
+
+    @Test
+    void testDoublesRoundCorrectly() {
+        for (var text : List.of("0.1", "-2.5e-3", "1.7976931348623157e308", "2.2250738585072014e-308",
+            "4.9e-324", "123456789012345678901.5", "0.30000000000000004", "1e23", "-0.0")) {
+            var actualResult = run(parser, text);
+            assertEquals(Result.Success.class, actualResult.getClass());
+            var number = (JValue.JNumber) ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1();
+            assertEquals(Double.parseDouble(text), number.doubleValue());
+        }
+    }
+
+    @Test
+    void testNumberEqualityIsExact() {
+        var a = new JValue.JNumber(9007199254740992L);
+        var b = new JValue.JNumber(9007199254740992.0);
+        var c = new JValue.JNumber(9007199254740993L);
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertFalse(b.equals(c));
+        assertFalse(a.equals(c));
+        assertFalse(new JValue.JNumber(Long.MAX_VALUE).equals(new JValue.JNumber(0x1p63)));
+        assertEquals(new JValue.JNumber(0L), new JValue.JNumber(-0.0));
+        assertEquals(new JValue.JNumber(0L).hashCode(), new JValue.JNumber(-0.0).hashCode());
+        var text = JValue.JNumber.lazy("1.50");
+        var dbl = new JValue.JNumber(1.5);
+        assertEquals(text, dbl);
+        assertEquals(text.hashCode(), dbl.hashCode());
+        assertEquals(JValue.JNumber.lazy("42.000"), new JValue.JNumber(42L));
+        assertEquals(JValue.JNumber.lazy("42.000").hashCode(), new JValue.JNumber(42L).hashCode());
+        assertFalse(JValue.JNumber.lazy("0.1").equals(new JValue.JNumber(0.1)));
+    }
+
+    @Test
+    void testExactNumber() {
+        var actualResult = run(Json.getNumber(true), "0.1000000000000000000001");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var number = ((Result.Success<Tuple<JValue.JNumber, State>>) actualResult).getValue().t1();
+        assertEquals(new BigDecimal("0.1000000000000000000001"), number.bigDecimalValue());
+    }
+
+    @Test
+    void testMalformedNumber() {
+        var actualResult = run(parser, "[1.]");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+    }
+
+    @Test
+    void testEscapes() {
+        var actualResult = run(parser, "\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\\u00e9\"");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(new JValue.JString("a\"b\\c/d\b\f\n\r\t\u00e9"), ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testSurrogatePair() {
+        var actualResult = run(parser, "\"x\\ud83d\\ude00y\"");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(new JValue.JString("x\ud83d\ude00y"), ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testUnpairedSurrogate() {
+        var actualResult = run(Json.getQuotedString(), "\"x\\ud83dy\"");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("Unpaired high surrogate", ((Result.Failure) actualResult).error());
+        assertEquals(2, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testBadEscape() {
+        var actualResult = run(Json.getQuotedString(), "\"a\\x\"");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(3, ((Result.Failure) actualResult).state().offset());
+        actualResult = run(Json.getQuotedString(), "\"\\u12g4\"");
+        assertEquals(5, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testNonAsciiHexDigits() {
+        var actualResult = run(Json.getQuotedString(), "\"\\u\u0660\u0660\u0664\u0661\"");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(3, ((Result.Failure) actualResult).state().offset());
+        actualResult = run(Json.getQuotedString(), "\"\\u00\uff14\uff11\"");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals(5, ((Result.Failure) actualResult).state().offset());
+    }
+
     @Test
     void testUnicode() {
         var expectedResult = new JValue.JString("喵");
@@ -106,4 +215,40 @@ public class JsonTest {
         assertEquals(Result.Success.class, actualResult.getClass());
         assertEquals(expectedResult, ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1());
     }
+
+    @Test
+    void testDuplicateKeysKeepLastValue() {
+        var actualResult = run(parser, "{\"a\": 1, \"b\": 2, \"a\": 3}");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var object = (JValue.JObject) ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1();
+        assertEquals(List.of("a", "b"), List.copyOf(object.value().keySet()));
+        assertEquals(new JValue.JNumber(3.0), object.value().get("a"));
+    }
+
+    @Test
+    void testLargeObjectPreservesOrder() {
+        var text = new StringBuilder("{");
+        var keys = new ArrayList<String>();
+        for (var i = 20; i > 0; i--) {
+            text.append(i == 20 ? "" : ", ").append("\"k").append(i).append("\": ").append(i);
+            keys.add("k" + i);
+        }
+        var actualResult = run(parser, text.append("}"));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var object = (JValue.JObject) ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1();
+        assertEquals(keys, List.copyOf(object.value().keySet()));
+        assertEquals(new JValue.JNumber(7.0), object.value().get("k7"));
+        assertEquals(null, object.value().get("k21"));
+    }
+
+    @Test
+    void testRepeatedKeysAreShared() {
+        var actualResult = run(parser, "[{\"id\": 1, \"na\\u006de\": 2}, {\"id\": 3, \"name\": 4}]");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var array = (JValue.JArray) ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1();
+        var first = (JObjectMap) ((JValue.JObject) array.value().get(0)).value();
+        var second = (JObjectMap) ((JValue.JObject) array.value().get(1)).value();
+        assertSame(first.keyAt(0), second.keyAt(0));
+        assertSame(first.keyAt(1), second.keyAt(1));
+    }
 }
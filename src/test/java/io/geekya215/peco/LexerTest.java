@@ -0,0 +1,97 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BinaryOperator;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LexerTest {
+    private static final char LET = 'l';
+    private static final char ID = 'i';
+    private static final char NUM = 'n';
+
+    private static final Lexer lexer = Lexer.of()
+        .token(LET, string("let"))
+        .token(ID, takeWhile1(CharClass.LETTER, "identifier"))
+        .token(NUM, takeWhile1(CharClass.DIGIT, "number"))
+        .token('=', character('='))
+        .token('+', character('+'))
+        .skip(takeWhile1(CharClass.SPACE, "space"));
+
+    private static final Parser<Long> sum = chainl1(
+        map(s -> Long.parseLong(s.toString()), Lexer.kind(NUM, "number")),
+        map(__ -> (BinaryOperator<Long>) Long::sum, character('+')));
+
+    private static final Parser<Tuple<CharSequence, Long>> let = discardL(
+        character(LET),
+        then(discardR(Lexer.kind(ID, "identifier"), character('=')), sum));
+
+    @Test
+    void testTokenize() {
+        var actualResult = run(lexer.tokenize(), "let letter = 12 + x");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var tokens = ((Result.Success<Tuple<TokenStream, State>>) actualResult).getValue().t1();
+        assertEquals("li=n+i", tokens.slice(0, tokens.size()).toString());
+        assertEquals("letter", tokens.text(1).toString());
+        assertEquals(13, tokens.start(3));
+        assertEquals(15, tokens.end(3));
+    }
+
+    @Test
+    void testParseOverTokens() {
+        var actualResult = run(lexer.parser(let), "let total = 1 + 20 + 300");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var value = ((Result.Success<Tuple<Tuple<CharSequence, Long>, State>>) actualResult).getValue();
+        assertEquals("total", value.t1().t1().toString());
+        assertEquals(321L, value.t1().t2());
+        assertEquals(24, value.t2().offset());
+    }
+
+    @Test
+    void testFailureMapsBackToText() {
+        var actualResult = run(lexer.parser(let), "let\n  = 1");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        var location = ((Result.Failure) actualResult).location();
+        assertEquals(6, location.offset());
+        assertEquals(1, location.line());
+        assertEquals(2, location.column());
+        assertEquals("  = 1", location.currentLine());
+        assertEquals("identifier", ((Result.Failure) actualResult).label());
+    }
+
+    @Test
+    void testLexerFailure() {
+        var actualResult = run(lexer.parser(let), "let x = 1 $");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("token", ((Result.Failure) actualResult).label());
+        assertEquals(10, ((Result.Failure) actualResult).state().offset());
+    }
+
+    @Test
+    void testGrammarSharesCallerContext() {
+        var table = MemoTable.lru(64);
+        var word = memo(Lexer.kind(ID, "identifier"));
+        var actualResult = run(lexer.parser(then(character(LET), word)), "let x", table);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(1L, table.misses());
+    }
+
+    @Test
+    void testTokenCutCommitsCaller() {
+        var grammar = discardL(commit(character(LET)), Lexer.kind(ID, "identifier"));
+        var parser = or(lexer.parser(grammar), map(CharSequence::toString, string("let 1")));
+        var actualResult = run(parser, "let 1");
+        assertEquals(Result.Failure.class, actualResult.getClass());
+        assertEquals("identifier", ((Result.Failure) actualResult).label());
+    }
+
+    @Test
+    void testTokenCutReleasesText() {
+        var state = Input.fromString("let x = 1");
+        var actualResult = runOnInput(lexer.parser(discardR(character(LET), cut())), state);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(4, state.context().committed());
+    }
+}
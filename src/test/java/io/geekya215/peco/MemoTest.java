@@ -0,0 +1,82 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MemoTest {
+    private static <A> Parser<A> counting(Parser<A> p, int[] calls) {
+        return Parser.of(input -> {
+            calls[0]++;
+            return runOnInput(p, input);
+        }, p.labelSupplier());
+    }
+
+    private static Parser<List<Character>> grammar(int[] calls) {
+        var as = memo(counting(many1(character('a')), calls));
+        return choice(List.of(
+            discardR(as, character('x')),
+            discardR(as, character('y')),
+            discardR(as, character('z'))
+        ));
+    }
+
+    @Test
+    void testWithoutPackratRerunsAlternatives() {
+        var calls = new int[1];
+        var actualResult = run(grammar(calls), "aaaz");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(3, calls[0]);
+    }
+
+    @Test
+    void testWindowPackratReusesResult() {
+        var calls = new int[1];
+        var memo = MemoTable.window(64);
+        var actualResult = run(grammar(calls), "aaaz", memo);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(List.of('a', 'a', 'a'), ((Result.Success<Tuple<List<Character>, State>>) actualResult).getValue().t1());
+        assertEquals(1, calls[0]);
+        assertEquals(2, memo.hits());
+    }
+
+    @Test
+    void testLruPackratReusesResult() {
+        var calls = new int[1];
+        var actualResult = run(grammar(calls), "aaaz", MemoTable.lru(16));
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    void testWindowDropsEntriesBehindFurthestOffset() {
+        var memo = MemoTable.window(4);
+        var state = Input.fromString("abcdefgh");
+        memo.put(0, 1, Result.Success.of(Tuple.of('a', state)));
+        memo.put(0, 6, Result.Success.of(Tuple.of('b', state)));
+        assertEquals(null, memo.get(0, 1));
+        assertEquals(Result.Success.class, memo.get(0, 6).getClass());
+    }
+
+    private static Parser<Tuple<Character, Character>> committing() {
+        var a = memo(discardR(character('a'), cut()));
+        return or(
+            attempt(then(a, character('x'))),
+            or(then(a, character('y')), map(s -> Tuple.of('a', 'z'), string("az"))));
+    }
+
+    @Test
+    void testMemoReplaysCommits() {
+        var plain = run(committing(), "az");
+        assertEquals(Result.Failure.class, plain.getClass());
+        for (var memo : List.of(MemoTable.window(8), MemoTable.lru(8))) {
+            var actualResult = run(committing(), "az", memo);
+            assertEquals(Result.Failure.class, actualResult.getClass());
+            assertEquals(1, memo.hits());
+            assertEquals(((Result.Failure) plain).state().offset(), ((Result.Failure) actualResult).state().offset());
+        }
+    }
+}
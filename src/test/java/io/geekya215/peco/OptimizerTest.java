@@ -0,0 +1,72 @@
+package io.geekya215.peco;
+
+import io.geekya215.peco.json.JValue;
+import io.geekya215.peco.json.Json;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OptimizerTest {
+    @Test
+    void testSequenceOfCharactersFusesIntoLiteral() {
+        var parser = optimize(sequence(List.of(character('n'), character('u'), character('l'), character('l'))));
+        assertTrue(parser.grammar() instanceof Grammar.Map<?, ?> map && map.source().grammar() instanceof Grammar.Literal);
+        var actualResult = run(parser, "null");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(List.of('n', 'u', 'l', 'l'), ((Result.Success<Tuple<List<Character>, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testThenOfStringsFusesIntoLiteral() {
+        var parser = optimize(then(string("ab"), then(character('c'), string("de"))));
+        var actualResult = run(parser, "abcde");
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(Tuple.of("ab", Tuple.of('c', "de")), ((Result.Success<Tuple<Tuple<String, Tuple<Character, String>>, State>>) actualResult).getValue().t1());
+        assertEquals(Result.Failure.class, run(parser, "abcdx").getClass());
+    }
+
+    @Test
+    void testMapChainCollapses() {
+        var digit = digit();
+        var parser = optimize(map((Integer x) -> x * 2, map(c -> c - '0', digit)));
+        assertTrue(parser.grammar() instanceof Grammar.Map<?, ?> map && map.source() == digit);
+        var actualResult = run(parser, "7");
+        assertEquals(14, ((Result.Success<Tuple<Integer, State>>) actualResult).getValue().t1());
+    }
+
+    @Test
+    void testSatisfyAlternativesMergeIntoCharClass() {
+        var parser = optimize(or(or(character('a'), character('b')), digit()));
+        assertTrue(parser.grammar() instanceof Grammar.Satisfy);
+        assertEquals('b', ((Result.Success<Tuple<Character, State>>) run(parser, "b")).getValue().t1());
+        assertEquals('5', ((Result.Success<Tuple<Character, State>>) run(parser, "5")).getValue().t1());
+        assertEquals(Result.Failure.class, run(parser, "c").getClass());
+    }
+
+    @Test
+    void testNestedOrFlattens() {
+        var parser = optimize(or(or(string("ab"), string("cd")), or(string("ef"), string("gh"))));
+        assertTrue(parser.grammar() instanceof Grammar.Alt<?> alt && alt.alternatives().size() == 4);
+        assertEquals("ef", ((Result.Success<Tuple<String, State>>) run(parser, "ef")).getValue().t1());
+    }
+
+    @Test
+    void testUnchangedParserIsReturnedAsIs() {
+        var parser = digit();
+        assertSame(parser, optimize(parser));
+    }
+
+    @Test
+    void testOptimizedJsonMatchesOriginal() {
+        var input = "{\"a\": [1, 2.5, true, null], \"b\": {\"c\": \"d\\n\"}}";
+        var expected = ((Result.Success<Tuple<JValue, State>>) run(Json.jValue, input)).getValue().t1();
+        var actualResult = run(optimize(Json.jValue), input);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        assertEquals(expected, ((Result.Success<Tuple<JValue, State>>) actualResult).getValue().t1());
+    }
+}
@@ -0,0 +1,94 @@
+package io.geekya215.peco;
+
+import io.geekya215.peco.json.JValue;
+import io.geekya215.peco.json.Json;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelTest {
+    private static final String lines = IntStream.range(0, 20000)
+        .mapToObj(i -> i == 12345 ? "[1, x]" : "[" + i + ", true]")
+        .collect(Collectors.joining("\r\n", "", "\n"));
+
+    private static void assertRecords(List<Result<Tuple<JValue, State>>> results) {
+        assertEquals(20000, results.size());
+        assertEquals(new JValue.JArray(List.of(new JValue.JNumber(42.0), new JValue.JBool(true))),
+            ((Result.Success<Tuple<JValue, State>>) results.get(42)).getValue().t1());
+        var failure = (Result.Failure) results.get(12345);
+        assertEquals(12345L, failure.location().line());
+        assertEquals(2L, failure.location().column());
+        assertEquals("[1, x]", failure.location().currentLine());
+        assertEquals(1, results.stream().filter(r -> r instanceof Result.Failure).count());
+    }
+
+    @Test
+    void testParseText() {
+        assertRecords(Parallel.parse(Json.jValue, lines));
+    }
+
+    @Test
+    void testParseReader() {
+        var pool = new ForkJoinPool(4);
+        try {
+            assertRecords(Parallel.parse(Json.jValue, Splitter.lines(), new StringReader(lines), pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testReaderKeepsColumnsForDelimitedRecords() {
+        var text = IntStream.range(0, 100000).mapToObj(i -> i == 50000 ? "ax" : "ab").collect(Collectors.joining(","));
+        var pool = new ForkJoinPool(4);
+        try {
+            var results = Parallel.parse(string("ab"), Splitter.of(','), new StringReader(text), pool);
+            assertEquals(100000, results.size());
+            var failure = (Result.Failure) results.get(50000);
+            assertEquals(0L, failure.location().line());
+            assertEquals(failure.state().offset(), failure.location().column());
+            assertEquals(text.length(), failure.location().currentLine().length());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testTrailingInputIsAFailure() {
+        var results = Parallel.parse(string("ab"), "ab\nabc\n\nab");
+        assertEquals(3, results.size());
+        assertEquals(Result.Failure.class, results.get(1).getClass());
+        assertEquals("end of record", ((Result.Failure) results.get(1)).label());
+        assertEquals(5L, ((Result.Failure) results.get(1)).state().offset());
+    }
+
+    @Test
+    void testParseUtf8Path() throws IOException {
+        var path = Files.createTempFile("peco", ".jsonl");
+        try {
+            Files.writeString(path, IntStream.range(0, 20000)
+                .mapToObj(i -> i == 12345 ? "[\"é\", x]" : "[\"é\", " + i + "]")
+                .collect(Collectors.joining("\n", "", "\n")), StandardCharsets.UTF_8);
+            var results = Parallel.parse(Json.jValue, path, StandardCharsets.UTF_8);
+            assertEquals(20000, results.size());
+            assertEquals(new JValue.JArray(List.of(new JValue.JString("é"), new JValue.JNumber(42.0))),
+                ((Result.Success<Tuple<JValue, State>>) results.get(42)).getValue().t1());
+            var failure = (Result.Failure) results.get(12345);
+            assertEquals(12345L, failure.location().line());
+            assertEquals(4L, failure.location().column());
+            assertEquals(1, results.stream().filter(r -> r instanceof Result.Failure).count());
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
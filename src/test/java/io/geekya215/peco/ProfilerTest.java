@@ -0,0 +1,66 @@
+package io.geekya215.peco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.geekya215.peco.Combinator.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProfilerTest {
+    @Test
+    void testCountsPerParser() {
+        var ab = setLabel(string("ab"), "ab");
+        var ac = setLabel(string("ac"), "ac");
+        var parser = setLabel(many(setLabel(or(ab, ac), "pair")), "pairs");
+        var profiler = Profiler.of();
+        var actualResult = run(parser, "abacac", profiler);
+        assertEquals(Result.Success.class, actualResult.getClass());
+        var entries = profiler.entries();
+        var byLabel = entries.stream().collect(Collectors.toMap(Profiler.Entry::label, Function.identity()));
+        assertEquals(1L, byLabel.get("pairs").invocations());
+        assertEquals(6L, byLabel.get("pairs").consumed());
+        assertEquals(4L, byLabel.get("pair").invocations());
+        assertEquals(3L, byLabel.get("pair").successes());
+        assertEquals(3L, byLabel.get("ab").invocations());
+        assertEquals(2L, byLabel.get("ab").backtracks());
+        assertEquals(List.of("pair", "ab", "ac", "pairs"), entries.stream().map(Profiler.Entry::label).toList());
+    }
+
+    @Test
+    void testTimedReport() {
+        var parser = setLabel(sepBy(takeWhile1(CharClass.DIGIT, "digits"), character(',')), "numbers");
+        var profiler = Profiler.timed();
+        run(parser, "1,22,333", profiler);
+        var report = profiler.report();
+        assertTrue(report.contains("numbers"));
+        assertTrue(report.contains("digits"));
+        assertTrue(profiler.entries().stream().allMatch(e -> e.totalNanos() >= e.selfNanos()));
+    }
+
+    @Test
+    void testInstrumentationSurvivesOptimize() {
+        var parser = setLabel(then(setLabel(string("a"), "a"), setLabel(string("b"), "b")), "ab");
+        var profiler = Profiler.of();
+        var optimized = optimize(profiler.instrument(parser));
+        run(optimized, "ab");
+        var byLabel = profiler.entries().stream().collect(Collectors.toMap(Profiler.Entry::label, Function.identity()));
+        assertEquals(1L, byLabel.get("a").invocations());
+        assertEquals(1L, byLabel.get("b").invocations());
+        assertEquals(1L, byLabel.get("ab").successes());
+    }
+
+    @Test
+    void testConcurrentCounts() {
+        var profiler = Profiler.timed();
+        var parser = profiler.instrument(setLabel(string("ab"), "ab"));
+        var text = IntStream.range(0, 50000).mapToObj(i -> "ab").collect(Collectors.joining("\n"));
+        Parallel.parse(parser, text);
+        assertEquals(50000L, profiler.entries().get(0).invocations());
+        assertEquals(100000L, profiler.entries().get(0).consumed());
+    }
+}
@@ -0,0 +1,212 @@
+package io.geekya215.peco.json;
+
+import io.geekya215.peco.Tuple;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+public final class JObjectMap extends AbstractMap<String, JValue> {
+    private static final int LINEAR = 8;
+    private static final JObjectMap EMPTY = new JObjectMap(new String[0], new JValue[0], 0, null);
+
+    private final String[] keys;
+    private final JValue[] values;
+    private final int size;
+    private final int[] index;
+
+    private JObjectMap(String[] keys, JValue[] values, int size, int[] index) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+        this.index = index;
+    }
+
+    public static JObjectMap of(List<Tuple<String, JValue>> fields) {
+        if (fields.isEmpty()) {
+            return EMPTY;
+        }
+        var builder = new Builder(fields.size());
+        for (var field : fields) {
+            builder.put(field.t1(), field.t2());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder(LINEAR);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return position(key) >= 0;
+    }
+
+    @Override
+    public JValue get(Object key) {
+        var position = position(key);
+        return position < 0 ? null : values[position];
+    }
+
+    public String keyAt(int position) {
+        return keys[position];
+    }
+
+    public JValue valueAt(int position) {
+        return values[position];
+    }
+
+    @Override
+    public Set<Map.Entry<String, JValue>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, JValue>> iterator() {
+                return new Iterator<>() {
+                    private int position;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < size;
+                    }
+
+                    @Override
+                    public Map.Entry<String, JValue> next() {
+                        if (position >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        var entry = new SimpleImmutableEntry<>(keys[position], values[position]);
+                        position++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int position(Object key) {
+        if (index == null) {
+            return linear(keys, size, key);
+        }
+        return probe(index, keys, key);
+    }
+
+    private static int linear(String[] keys, int size, Object key) {
+        for (var i = 0; i < size; i++) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        if (key instanceof String) {
+            for (var i = 0; i < size; i++) {
+                if (keys[i].equals(key)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int probe(int[] index, String[] keys, Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        var mask = index.length - 1;
+        for (var slot = spread(key.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            var position = index[slot] - 1;
+            if (position < 0) {
+                return -1;
+            } else if (keys[position] == key || keys[position].equals(key)) {
+                return position;
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    public static final class Builder {
+        private String[] keys;
+        private JValue[] values;
+        private int size;
+        private int[] index;
+
+        private Builder(int capacity) {
+            this.keys = new String[Math.max(1, capacity)];
+            this.values = new JValue[keys.length];
+        }
+
+        public Builder put(String key, JValue value) {
+            var position = index == null ? linear(keys, size, key) : probe(index, keys, key);
+            if (position >= 0) {
+                values[position] = value;
+                return this;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(LINEAR, size * 2));
+                values = Arrays.copyOf(values, keys.length);
+            }
+            keys[size] = key;
+            values[size] = value;
+            size++;
+            if (index != null) {
+                insert(size - 1);
+            } else if (size > LINEAR) {
+                reindex();
+            }
+            return this;
+        }
+
+        public JObjectMap build() {
+            var map = new JObjectMap(
+                size == keys.length ? keys : Arrays.copyOf(keys, size),
+                size == values.length ? values : Arrays.copyOf(values, size),
+                size, index);
+            keys = new String[0];
+            values = new JValue[0];
+            size = 0;
+            index = null;
+            return map;
+        }
+
+        private void insert(int position) {
+            if (size * 2 > index.length) {
+                reindex();
+                return;
+            }
+            var mask = index.length - 1;
+            var slot = spread(keys[position].hashCode()) & mask;
+            while (index[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = position + 1;
+        }
+
+        private void reindex() {
+            index = new int[Integer.highestOneBit(size * 4 - 1) << 1];
+            var mask = index.length - 1;
+            for (var position = 0; position < size; position++) {
+                var slot = spread(keys[position].hashCode()) & mask;
+                while (index[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                index[slot] = position + 1;
+            }
+        }
+    }
+}
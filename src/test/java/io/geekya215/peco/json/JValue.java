@@ -1,5 +1,6 @@
 package io.geekya215.peco.json;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -11,7 +12,138 @@ public sealed interface JValue
     record JBool(Boolean value) implements JValue {
     }
 
-    record JNumber(Double value) implements JValue {
+    final class JNumber implements JValue {
+        private static final byte LONG = 0;
+        private static final byte DOUBLE = 1;
+        private static final byte TEXT = 2;
+
+        private final byte form;
+        private final long longValue;
+        private final double doubleValue;
+        private final String text;
+
+        private JNumber(byte form, long longValue, double doubleValue, String text) {
+            this.form = form;
+            this.longValue = longValue;
+            this.doubleValue = doubleValue;
+            this.text = text;
+        }
+
+        public JNumber(long value) {
+            this(LONG, value, 0, null);
+        }
+
+        public JNumber(double value) {
+            this(DOUBLE, 0, value, null);
+        }
+
+        public static JNumber lazy(String text) {
+            return new JNumber(TEXT, 0, 0, text);
+        }
+
+        public double value() {
+            return doubleValue();
+        }
+
+        public boolean isLong() {
+            return form == LONG;
+        }
+
+        public long longValue() {
+            if (form == LONG) {
+                return longValue;
+            } else if (form == DOUBLE) {
+                return (long) doubleValue;
+            } else {
+                return bigDecimalValue().longValue();
+            }
+        }
+
+        public double doubleValue() {
+            if (form == LONG) {
+                return longValue;
+            } else if (form == DOUBLE) {
+                return doubleValue;
+            } else {
+                return Double.parseDouble(text);
+            }
+        }
+
+        public BigDecimal bigDecimalValue() {
+            if (form == LONG) {
+                return BigDecimal.valueOf(longValue);
+            } else if (form == DOUBLE) {
+                return BigDecimal.valueOf(doubleValue);
+            } else {
+                return new BigDecimal(text);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof JNumber other)) {
+                return false;
+            }
+            if (form == LONG && other.form == LONG) {
+                return longValue == other.longValue;
+            } else if (form == DOUBLE && other.form == DOUBLE) {
+                return doubleValue == other.doubleValue;
+            } else if (form == LONG && other.form == DOUBLE) {
+                return sameValue(longValue, other.doubleValue);
+            } else if (form == DOUBLE && other.form == LONG) {
+                return sameValue(other.longValue, doubleValue);
+            }
+            var exact = exact();
+            var otherExact = other.exact();
+            return exact != null && otherExact != null && exact.compareTo(otherExact) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            if (form == LONG) {
+                return Long.hashCode(longValue);
+            } else if (form == DOUBLE) {
+                return inLongRange(doubleValue) && doubleValue == (long) doubleValue
+                    ? Long.hashCode((long) doubleValue)
+                    : Double.hashCode(doubleValue);
+            }
+            var exact = new BigDecimal(text).stripTrailingZeros();
+            if (exact.scale() <= 0 && exact.toBigInteger().bitLength() < Long.SIZE) {
+                return Long.hashCode(exact.longValue());
+            }
+            var approximate = exact.doubleValue();
+            if (Double.isFinite(approximate) && new BigDecimal(approximate).compareTo(exact) == 0) {
+                return Double.hashCode(approximate);
+            }
+            return exact.hashCode();
+        }
+
+        private BigDecimal exact() {
+            if (form == LONG) {
+                return BigDecimal.valueOf(longValue);
+            } else if (form == DOUBLE) {
+                return Double.isFinite(doubleValue) ? new BigDecimal(doubleValue) : null;
+            } else {
+                return new BigDecimal(text);
+            }
+        }
+
+        private static boolean sameValue(long l, double d) {
+            return inLongRange(d) && (long) d == l && (double) l == d;
+        }
+
+        private static boolean inLongRange(double d) {
+            return d >= -0x1p63 && d < 0x1p63;
+        }
+
+        @Override
+        public String toString() {
+            var value = form == LONG ? String.valueOf(longValue) : form == DOUBLE ? String.valueOf(doubleValue) : text;
+            return "JNumber[value=" + value + "]";
+        }
     }
 
     record JString(String value) implements JValue {
@@ -1,49 +1,41 @@
 package io.geekya215.peco.json;
 
-import io.geekya215.peco.Input;
+import io.geekya215.peco.CharClass;
 import io.geekya215.peco.Parser;
 import io.geekya215.peco.Result;
+import io.geekya215.peco.Source;
+import io.geekya215.peco.State;
 import io.geekya215.peco.Tuple;
 
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static io.geekya215.peco.Combinator.*;
 
 public class Json {
+    private static final long MAX_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_EXPONENT = 100_000;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
     public static final Parser<JValue> jNull = setLabel(map(__ -> new JValue.JNull(), string("null")), "null");
     public static final Parser<JValue> jBool = setLabel(
         or(
             map(__ -> new JValue.JBool(true), string("true")),
             map(__ -> new JValue.JBool(false), string("false"))),
         "bool");
-    public static final Parser<Character> jUnescapedChar = satisfy(c -> c != '\\' && c != '\"', "char");
-    public static final Parser<Character> jEscapedChar = setLabel(
-        choice(List.of(
-            map(__ -> '\"', string("\\\"")),
-            map(__ -> '\\', string("\\\\")),
-            map(__ -> '/', string("\\/")),
-            map(__ -> '\b', string("\\b")),
-            map(__ -> '\f', string("\\f")),
-            map(__ -> '\n', string("\\n")),
-            map(__ -> '\r', string("\\r")),
-            map(__ -> '\t', string("\\t"))
-        )), "escaped char");
-    public static final Parser<Character> jUnicodeChar = getJUnicodeChar();
     public static final Parser<JValue> jString = setLabel(
         map(JValue.JString::new, getQuotedString()),
         "quoted string");
+    @SuppressWarnings("unchecked")
     public static final Parser<JValue> jNumber = setLabel(
-        map(JValue.JNumber::new, getNumber()),
+        (Parser<JValue>) (Parser<? extends JValue>) getNumber(),
         "number"
     );
-    public static Ref<Parser<JValue>> jValueRef = Ref.of(
-        Parser.of(input -> Result.Failure.of("unknown", "unknown", Input.getLocationFromState(input)), "unknown")
-    );
-    public static Parser<JValue> jValue = Parser.of(
-        input -> runOnInput(jValueRef.get(), input), "unknown"
-    );
+    public static final Parser<JValue> jValue = setLabel(ref(() -> Json.jAnyValue), "value");
     public static final Parser<JValue> jArray = setLabel(
         map(JValue.JArray::new, getJArray()),
         "array"
@@ -52,96 +44,239 @@ public class Json {
         map(JValue.JObject::new, getJObject()),
         "object"
     );
+    private static final Parser<JValue> jAnyValue = choice(List.of(
+        jNull,
+        jBool,
+        jNumber,
+        jString,
+        jArray,
+        jObject
+    ));
 
-    static {
-        jValueRef.set(choice(List.of(
-            jNull,
-            jBool,
-            jNumber,
-            jString,
-            jArray,
-            jObject
-        )));
+    public static Parser<String> getQuotedString() {
+        Supplier<String> label = () -> "quoted string";
+        Function<State, Result<Tuple<String, State>>> fn = input -> {
+            var source = input.source();
+            var start = input.offset();
+            if (!at(source, start, '"')) {
+                return Result.Failure.of(label, input);
+            }
+            var i = start + 1;
+            var run = i;
+            StringBuilder sb = null;
+            while (true) {
+                if (source.isEnd(i)) {
+                    return Result.Failure.of(() -> "closing quote", input.at(i));
+                }
+                var c = source.charAt(i);
+                if (c == '"') {
+                    if (sb == null) {
+                        return Result.Success.of(Tuple.of(source.slice(run, i).toString(), input.at(i + 1)));
+                    }
+                    sb.append(source.slice(run, i));
+                    return Result.Success.of(Tuple.of(sb.toString(), input.at(i + 1)));
+                } else if (c != '\\') {
+                    i++;
+                    continue;
+                }
+                if (sb == null) {
+                    sb = new StringBuilder();
+                }
+                sb.append(source.slice(run, i));
+                var escape = i + 1;
+                var e = source.isEnd(escape) ? 0 : source.charAt(escape);
+                switch (e) {
+                    case '"' -> sb.append('"');
+                    case '\\' -> sb.append('\\');
+                    case '/' -> sb.append('/');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'u' -> {
+                        var unit = hex4(source, escape + 1);
+                        if (unit < 0) {
+                            return Result.Failure.of(() -> "hex digit", input.at(escape - unit));
+                        }
+                        if (Character.isLowSurrogate((char) unit)) {
+                            return Result.Failure.of(label, "Unpaired low surrogate", input.at(i));
+                        }
+                        if (Character.isHighSurrogate((char) unit)) {
+                            var low = at(source, escape + 5, '\\') && at(source, escape + 6, 'u') ? hex4(source, escape + 7) : -1;
+                            if (low < 0 || !Character.isLowSurrogate((char) low)) {
+                                return Result.Failure.of(label, "Unpaired high surrogate", input.at(i));
+                            }
+                            sb.append((char) unit).append((char) low);
+                            i = escape + 11;
+                        } else {
+                            sb.append((char) unit);
+                            i = escape + 5;
+                        }
+                        run = i;
+                        continue;
+                    }
+                    default -> {
+                        return Result.Failure.of(() -> "escaped char", input.at(escape));
+                    }
+                }
+                i = escape + 1;
+                run = i;
+            }
+        };
+        return Parser.of(fn, label);
     }
 
-    public static Parser<Character> getJUnicodeChar() {
-        var backslash = character('\\');
-        var uChar = character('u');
-        var hexDigit = satisfy(c ->
-            (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'), "hex digit");
-        var fourHexDigits = count(4, hexDigit);
-
-        return map(xs -> {
-            String str = String.format("%c%c%c%c", xs.get(0), xs.get(1), xs.get(2), xs.get(3));
-            return (char) Integer.parseInt(str, 16);
-        }, discardL(backslash, discardL(uChar, fourHexDigits)));
+    public static Parser<String> getKey() {
+        var quoted = getQuotedString();
+        Function<State, Result<Tuple<String, State>>> fn = input -> {
+            var source = input.source();
+            var start = input.offset();
+            if (!source.isEnd(start) && source.charAt(start) == '\"') {
+                for (var end = start + 1; !source.isEnd(end); end++) {
+                    var c = source.charAt(end);
+                    if (c == '\"') {
+                        var key = input.context().local(KeyCache.class, KeyCache::new).intern(source, start + 1, end);
+                        return Result.Success.of(Tuple.of(key, input.at(end + 1)));
+                    } else if (c == '\\') {
+                        break;
+                    }
+                }
+            }
+            var res = runOnInput(quoted, input);
+            if (res instanceof Result.Success<Tuple<String, State>> s) {
+                var key = input.context().local(KeyCache.class, KeyCache::new).intern(s.getValue().t1());
+                return Result.Success.of(Tuple.of(key, s.getValue().t2()));
+            }
+            return res;
+        };
+        return Parser.of(fn, quoted.labelSupplier());
     }
 
-    public static Parser<String> getQuotedString() {
-        var quote = character('\"');
-        var jChar = or(or(jUnescapedChar, jEscapedChar), jUnicodeChar);
-        return map(
-            xs -> xs.stream().map(String::valueOf).collect(Collectors.joining()),
-            discardL(quote, discardR(many(jChar), quote)));
+    public static Parser<JValue.JNumber> getNumber() {
+        return getNumber(false);
     }
 
-    public static Parser<Double> getNumber() {
-        var optSign = opt(character('-'));
-        var zero = string("0");
-        var oneToNine = satisfy(c -> c >= '1' && c <= '9', "one to nine digit");
-        var point = character('.');
-        var exp = or(character('e'), character('E'));
-        var optPlusMinus = opt(or(character('+'), character(('-'))));
-        var nonZeroInt = map(
-            t -> t.t1() + t.t2().stream().map(String::valueOf).collect(Collectors.joining()),
-            then(oneToNine, many(digit())));
-        var intPart = or(zero, nonZeroInt);
-        var fractionPart = discardL(
-            point,
-            map(xs -> xs.stream().map(String::valueOf).collect(Collectors.joining()),
-                many1(digit())));
-        var exponentPart =
-            then(
-                discardL(exp, optPlusMinus),
-                map(xs -> xs.stream().map(String::valueOf).collect(Collectors.joining()), many1(digit())));
-        return
-            map(n -> {
-                    var _optSign = n.t1().t1().t1();
-                    var _intPart = n.t1().t1().t2();
-                    var _fractionPart = n.t1().t2();
-                    var _expPart = n.t2();
-
-                    var signStr = _optSign.map(String::valueOf).orElse("");
-                    var fractionPartStr = _fractionPart.map(s -> "." + s).orElse("");
-                    var expPartStr = _expPart.map(e -> "e" + e.t1().map(String::valueOf).orElse("") + e.t2()).orElse("");
-                    return Double.valueOf(signStr + _intPart + fractionPartStr + expPartStr);
+    public static Parser<JValue.JNumber> getNumber(boolean exact) {
+        Supplier<String> label = () -> "number";
+        Function<State, Result<Tuple<JValue.JNumber, State>>> fn = input -> {
+            var source = input.source();
+            var start = input.offset();
+            var i = start;
+            var negative = at(source, i, '-');
+            if (negative) {
+                i++;
+            }
+            var mantissa = 0L;
+            var exponent = 0;
+            var truncated = false;
+            var integral = true;
+            if (at(source, i, '0')) {
+                i++;
+            } else if (isDigit(source, i)) {
+                for (; isDigit(source, i); i++) {
+                    if (mantissa < MAX_MANTISSA) {
+                        mantissa = mantissa * 10 + (source.charAt(i) - '0');
+                    } else {
+                        truncated = true;
+                        exponent++;
+                    }
                 }
-                , then(then(then(optSign, intPart), opt(fractionPart)), opt(exponentPart))
-            );
+            } else {
+                return Result.Failure.of(label, input.at(i));
+            }
+            if (at(source, i, '.')) {
+                i++;
+                if (!isDigit(source, i)) {
+                    return Result.Failure.of(label, input.at(i));
+                }
+                integral = false;
+                for (; isDigit(source, i); i++) {
+                    if (mantissa < MAX_MANTISSA) {
+                        mantissa = mantissa * 10 + (source.charAt(i) - '0');
+                        exponent--;
+                    } else {
+                        truncated = true;
+                    }
+                }
+            }
+            if (at(source, i, 'e') || at(source, i, 'E')) {
+                i++;
+                var negativeExponent = at(source, i, '-');
+                if (negativeExponent || at(source, i, '+')) {
+                    i++;
+                }
+                if (!isDigit(source, i)) {
+                    return Result.Failure.of(label, input.at(i));
+                }
+                integral = false;
+                var e = 0;
+                for (; isDigit(source, i); i++) {
+                    if (e < MAX_EXPONENT) {
+                        e = e * 10 + (source.charAt(i) - '0');
+                    }
+                }
+                exponent += negativeExponent ? -e : e;
+            }
+            JValue.JNumber number;
+            if (exact || (integral && truncated)) {
+                number = JValue.JNumber.lazy(source.slice(start, i).toString());
+            } else if (integral) {
+                number = negative && mantissa == 0 ? new JValue.JNumber(-0.0) : new JValue.JNumber(negative ? -mantissa : mantissa);
+            } else if (!truncated && mantissa <= MAX_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+                var value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+                number = new JValue.JNumber(negative ? -value : value);
+            } else {
+                number = new JValue.JNumber(Double.parseDouble(source.slice(start, i).toString()));
+            }
+            return Result.Success.of(Tuple.of(number, input.at(i)));
+        };
+        return Parser.of(fn, label);
     }
 
     public static Parser<List<JValue>> getJArray() {
-        var left = discardR(character('['), spaces());
-        var right = discardR(character(']'), spaces());
-        var comma = discardR(character(','), spaces());
-        var value = discardR(jValue, spaces());
+        var left = lexeme(character('['));
+        var right = lexeme(character(']'));
+        var comma = lexeme(character(','));
+        var value = lexeme(jValue);
 
         var values = sepBy(value, comma);
         return between(left, values, right);
     }
 
-    public static Parser<Map<String, JValue>> getJObject() {
-        var left = discardR(character('{'), spaces());
-        var right = discardR(character('}'), spaces());
-        var colon = discardR(character(':'), spaces());
-        var comma = discardR(character(','), spaces());
-        var key = discardR(getQuotedString(), spaces());
-        var value = discardR(jValue, spaces());
+    public static Parser<JObjectMap> getJObject() {
+        var left = lexeme(character('{'));
+        var right = lexeme(character('}'));
+        var colon = lexeme(character(':'));
+        var comma = lexeme(character(','));
+        var key = lexeme(getKey());
+        var value = lexeme(jValue);
 
         var keyValue = then(discardR(key, colon), value);
         var keyValues = sepBy(keyValue, comma);
-        return map(
-            xs -> xs.stream().collect(Collectors.toMap(Tuple::t1, Tuple::t2)),
-            between(left, keyValues, right));
+        return map(JObjectMap::of, between(left, keyValues, right));
+    }
+
+    private static boolean at(Source source, long offset, char c) {
+        return !source.isEnd(offset) && source.charAt(offset) == c;
+    }
+
+    private static boolean isDigit(Source source, long offset) {
+        if (source.isEnd(offset)) {
+            return false;
+        }
+        var c = source.charAt(offset);
+        return c >= '0' && c <= '9';
+    }
+
+    private static int hex4(Source source, long offset) {
+        var value = 0;
+        for (var i = 0; i < 4; i++) {
+            if (source.isEnd(offset + i) || !CharClass.HEX_DIGIT.test(source.charAt(offset + i))) {
+                return -1 - i;
+            }
+            value = value << 4 | Character.digit(source.charAt(offset + i), 16);
+        }
+        return value;
     }
 }
@@ -0,0 +1,318 @@
+package io.geekya215.peco.json;
+
+import io.geekya215.peco.CharClass;
+import io.geekya215.peco.Parser;
+import io.geekya215.peco.Result;
+import io.geekya215.peco.State;
+import io.geekya215.peco.Tuple;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static io.geekya215.peco.Combinator.*;
+
+public final class JsonReader {
+    private static final Parser<String> quotedString = Json.getQuotedString();
+    private static final Parser<String> key = Json.getKey();
+    private static final Parser<JValue.JNumber> number = Json.getNumber();
+    private static final Parser<String> trueLiteral = string("true");
+    private static final Parser<String> falseLiteral = string("false");
+    private static final Parser<String> nullLiteral = string("null");
+
+    private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+    private State position;
+    private boolean done;
+    private String name;
+    private String string;
+    private JValue.JNumber numberValue;
+
+    private JsonReader(State input) {
+        this.position = input;
+    }
+
+    public static JsonReader of(State input) {
+        return new JsonReader(input);
+    }
+
+    public static Result<Tuple<Long, State>> forEachElement(State input, Consumer<? super JValue> consumer) {
+        var reader = of(input);
+        try {
+            if (reader.next() != Event.START_ARRAY) {
+                throw reader.malformed("array", reader.position);
+            }
+            var count = 0L;
+            while (reader.peek() != Event.END_ARRAY) {
+                consumer.accept(reader.readValue());
+                count++;
+            }
+            reader.next();
+            return Result.Success.of(Tuple.of(count, reader.position));
+        } catch (Malformed e) {
+            return e.failure();
+        }
+    }
+
+    public State position() {
+        return position;
+    }
+
+    public int depth() {
+        return frames.size();
+    }
+
+    public boolean hasNext() {
+        return !done;
+    }
+
+    public Event peek() {
+        var offset = skipSpaces(position.offset());
+        var frame = frames.peek();
+        if (frame == null) {
+            if (done) {
+                throw new NoSuchElementException();
+            }
+        } else if (frame.object && !frame.afterName) {
+            if (at(offset, '}')) {
+                return Event.END_OBJECT;
+            }
+            if (!frame.first && !at(offset, ',')) {
+                throw malformed("','", position.at(offset));
+            }
+            return Event.FIELD_NAME;
+        } else if (!frame.object) {
+            if (at(offset, ']')) {
+                return Event.END_ARRAY;
+            }
+            if (!frame.first) {
+                if (!at(offset, ',')) {
+                    throw malformed("','", position.at(offset));
+                }
+                offset = skipSpaces(offset + 1);
+            }
+        }
+        return classify(offset);
+    }
+
+    public Event next() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+        var event = advance();
+        if (event == null) {
+            event = startValue();
+        }
+        release();
+        return event;
+    }
+
+    public JValue readValue() {
+        if (done) {
+            throw new NoSuchElementException();
+        }
+        var event = peek();
+        if (event == Event.FIELD_NAME || event == Event.END_OBJECT || event == Event.END_ARRAY) {
+            throw malformed("value", position.at(skipSpaces(position.offset())));
+        }
+        advance();
+        var value = parse(Json.jValue);
+        afterValue();
+        release();
+        return value;
+    }
+
+    public void skipValue() {
+        var depth = frames.size();
+        var event = next();
+        while (frames.size() > depth || event == Event.FIELD_NAME) {
+            event = next();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public String stringValue() {
+        return string;
+    }
+
+    public JValue.JNumber numberValue() {
+        return numberValue;
+    }
+
+    private Event advance() {
+        skip();
+        var frame = frames.peek();
+        if (frame == null) {
+            return null;
+        }
+        if (frame.object && !frame.afterName) {
+            if (at(position.offset(), '}')) {
+                position = position.at(position.offset() + 1);
+                frames.pop();
+                afterValue();
+                return Event.END_OBJECT;
+            }
+            if (!frame.first) {
+                expect(',');
+            }
+            name = parse(key);
+            skip();
+            expect(':');
+            frame.first = false;
+            frame.afterName = true;
+            return Event.FIELD_NAME;
+        }
+        if (frame.object) {
+            frame.afterName = false;
+        } else {
+            if (at(position.offset(), ']')) {
+                position = position.at(position.offset() + 1);
+                frames.pop();
+                afterValue();
+                return Event.END_ARRAY;
+            }
+            if (!frame.first) {
+                expect(',');
+            }
+            frame.first = false;
+        }
+        skip();
+        return null;
+    }
+
+    private Event startValue() {
+        var event = classify(position.offset());
+        switch (event) {
+            case START_OBJECT -> {
+                position = position.at(position.offset() + 1);
+                frames.push(new Frame(true));
+            }
+            case START_ARRAY -> {
+                position = position.at(position.offset() + 1);
+                frames.push(new Frame(false));
+            }
+            case VALUE_STRING -> {
+                string = parse(quotedString);
+                afterValue();
+            }
+            case VALUE_NUMBER -> {
+                numberValue = parse(number);
+                afterValue();
+            }
+            case VALUE_TRUE -> literal(trueLiteral);
+            case VALUE_FALSE -> literal(falseLiteral);
+            case VALUE_NULL -> literal(nullLiteral);
+            default -> throw malformed("value", position);
+        }
+        return event;
+    }
+
+    private Event classify(long offset) {
+        if (position.source().isEnd(offset)) {
+            throw malformed("value", position.at(offset));
+        }
+        return switch (position.source().charAt(offset)) {
+            case '{' -> Event.START_OBJECT;
+            case '[' -> Event.START_ARRAY;
+            case '"' -> Event.VALUE_STRING;
+            case 't' -> Event.VALUE_TRUE;
+            case 'f' -> Event.VALUE_FALSE;
+            case 'n' -> Event.VALUE_NULL;
+            default -> Event.VALUE_NUMBER;
+        };
+    }
+
+    private void literal(Parser<String> text) {
+        parse(text);
+        afterValue();
+    }
+
+    private void afterValue() {
+        if (frames.isEmpty()) {
+            var offset = skipSpaces(position.offset());
+            if (!position.source().isEnd(offset)) {
+                throw malformed("end of input", position.at(offset));
+            }
+            done = true;
+        }
+    }
+
+    private <A> A parse(Parser<A> parser) {
+        var res = runOnInput(parser, position);
+        if (res instanceof Result.Success<Tuple<A, State>> s) {
+            position = s.getValue().t2();
+            return s.getValue().t1();
+        }
+        throw new Malformed((Result.Failure) res);
+    }
+
+    private void expect(char c) {
+        if (!at(position.offset(), c)) {
+            throw malformed("'" + c + "'", position);
+        }
+        position = position.at(skipSpaces(position.offset() + 1));
+    }
+
+    private void skip() {
+        position = position.at(skipSpaces(position.offset()));
+    }
+
+    private long skipSpaces(long offset) {
+        var source = position.source();
+        while (!source.isEnd(offset) && CharClass.SPACE.test(source.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private boolean at(long offset, char c) {
+        return !position.source().isEnd(offset) && position.source().charAt(offset) == c;
+    }
+
+    private void release() {
+        position.source().release(position.offset());
+    }
+
+    private Malformed malformed(String label, State state) {
+        Supplier<String> expected = () -> label;
+        return new Malformed(Result.Failure.of(expected, state));
+    }
+
+    public enum Event {
+        START_OBJECT, END_OBJECT, START_ARRAY, END_ARRAY, FIELD_NAME,
+        VALUE_STRING, VALUE_NUMBER, VALUE_TRUE, VALUE_FALSE, VALUE_NULL
+    }
+
+    public static final class Malformed extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Result.Failure failure;
+
+        private Malformed(Result.Failure failure) {
+            super(null, null, false, false);
+            this.failure = failure;
+        }
+
+        @Override
+        public String getMessage() {
+            return failure.toString();
+        }
+
+        public Result.Failure failure() {
+            return failure;
+        }
+    }
+
+    private static final class Frame {
+        private final boolean object;
+        private boolean first = true;
+        private boolean afterName;
+
+        private Frame(boolean object) {
+            this.object = object;
+        }
+    }
+}
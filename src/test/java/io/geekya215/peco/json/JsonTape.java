@@ -0,0 +1,420 @@
+package io.geekya215.peco.json;
+
+import io.geekya215.peco.CharClass;
+import io.geekya215.peco.Context;
+import io.geekya215.peco.Parser;
+import io.geekya215.peco.Result;
+import io.geekya215.peco.Source;
+import io.geekya215.peco.State;
+import io.geekya215.peco.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static io.geekya215.peco.Combinator.runOnInput;
+
+public final class JsonTape {
+    public static final Parser<JsonTape> parser = Parser.of(JsonTape::scan, "json");
+    private static final Parser<JValue.JNumber> number = Json.getNumber();
+
+    private static final int KIND_SHIFT = 56;
+    private static final long ESCAPED = 1L << 55;
+    private static final long PAYLOAD = ESCAPED - 1;
+    private static final Kind[] KINDS = Kind.values();
+
+    private final Source source;
+    private final long[] tape;
+
+    private JsonTape(Source source, long[] tape) {
+        this.source = source;
+        this.tape = tape;
+    }
+
+    public Node root() {
+        return new Node(this, 0);
+    }
+
+    public int size() {
+        return tape.length;
+    }
+
+    private static Result<Tuple<JsonTape, State>> scan(State input) {
+        return new Scanner(input).scan();
+    }
+
+    private Kind kind(int index) {
+        return KINDS[(int) (tape[index] >>> KIND_SHIFT)];
+    }
+
+    private long payload(int index) {
+        return tape[index] & PAYLOAD;
+    }
+
+    private int next(int index) {
+        return switch (kind(index)) {
+            case OBJECT, ARRAY -> (int) payload(index) + 1;
+            case STRING, NUMBER -> index + 2;
+            default -> index + 1;
+        };
+    }
+
+    private JValue.JNumber number(int index) {
+        var res = runOnInput(number, new State(source, payload(index), Context.of()));
+        return ((Result.Success<Tuple<JValue.JNumber, State>>) res).getValue().t1();
+    }
+
+    private String string(int index) {
+        if ((tape[index] & ESCAPED) == 0) {
+            return source.slice(payload(index) + 1, tape[index + 1] - 1).toString();
+        }
+        var res = runOnInput(Json.getQuotedString(), new State(source, payload(index), Context.of()));
+        return ((Result.Success<Tuple<String, State>>) res).getValue().t1();
+    }
+
+    private boolean keyEquals(int index, String key) {
+        if ((tape[index] & ESCAPED) != 0) {
+            return string(index).equals(key);
+        }
+        var start = payload(index) + 1;
+        if (tape[index + 1] - 1 - start != key.length()) {
+            return false;
+        }
+        for (var i = 0; i < key.length(); i++) {
+            if (source.charAt(start + i) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public enum Kind {
+        OBJECT, ARRAY, STRING, NUMBER, TRUE, FALSE, NULL, END
+    }
+
+    public record Node(JsonTape tape, int index) {
+        public Kind kind() {
+            return tape.kind(index);
+        }
+
+        public int size() {
+            var kind = expect(Kind.ARRAY, Kind.OBJECT);
+            var count = 0;
+            for (var i = index + 1; tape.kind(i) != Kind.END; i = tape.next(i)) {
+                count++;
+            }
+            return kind == Kind.OBJECT ? count / 2 : count;
+        }
+
+        public Node get(int position) {
+            expect(Kind.ARRAY, Kind.ARRAY);
+            var i = index + 1;
+            for (var n = 0; tape.kind(i) != Kind.END; n++, i = tape.next(i)) {
+                if (n == position) {
+                    return new Node(tape, i);
+                }
+            }
+            throw new IndexOutOfBoundsException(position);
+        }
+
+        public Optional<Node> get(String key) {
+            expect(Kind.OBJECT, Kind.OBJECT);
+            for (var i = index + 1; tape.kind(i) != Kind.END; i = tape.next(i + 2)) {
+                if (tape.keyEquals(i, key)) {
+                    return Optional.of(new Node(tape, i + 2));
+                }
+            }
+            return Optional.empty();
+        }
+
+        public String stringValue() {
+            expect(Kind.STRING, Kind.STRING);
+            return tape.string(index);
+        }
+
+        public JValue.JNumber numberValue() {
+            expect(Kind.NUMBER, Kind.NUMBER);
+            return tape.number(index);
+        }
+
+        public double doubleValue() {
+            return numberValue().doubleValue();
+        }
+
+        public long longValue() {
+            return numberValue().longValue();
+        }
+
+        public boolean booleanValue() {
+            return expect(Kind.TRUE, Kind.FALSE) == Kind.TRUE;
+        }
+
+        public boolean isNull() {
+            return kind() == Kind.NULL;
+        }
+
+        public JValue toJValue() {
+            return switch (kind()) {
+                case OBJECT -> {
+                    var fields = JObjectMap.builder();
+                    for (var i = index + 1; tape.kind(i) != Kind.END; i = tape.next(i + 2)) {
+                        fields.put(tape.string(i), new Node(tape, i + 2).toJValue());
+                    }
+                    yield new JValue.JObject(fields.build());
+                }
+                case ARRAY -> {
+                    var elements = new ArrayList<JValue>();
+                    for (var i = index + 1; tape.kind(i) != Kind.END; i = tape.next(i)) {
+                        elements.add(new Node(tape, i).toJValue());
+                    }
+                    yield new JValue.JArray(elements);
+                }
+                case STRING -> new JValue.JString(stringValue());
+                case NUMBER -> numberValue();
+                case TRUE -> new JValue.JBool(true);
+                case FALSE -> new JValue.JBool(false);
+                case NULL -> new JValue.JNull();
+                case END -> throw new NoSuchElementException();
+            };
+        }
+
+        private Kind expect(Kind a, Kind b) {
+            var kind = kind();
+            if (kind != a && kind != b) {
+                throw new IllegalStateException(String.format("expected %s but node is %s", a == b ? a : a + " or " + b, kind));
+            }
+            return kind;
+        }
+    }
+
+    private static final class Scanner {
+        private final State input;
+        private final Source source;
+        private long offset;
+        private long[] tape = new long[64];
+        private int length;
+        private int[] open = new int[16];
+        private int depth;
+        private Result.Failure failure;
+
+        private Scanner(State input) {
+            this.input = input;
+            this.source = input.source();
+            this.offset = input.offset();
+        }
+
+        private Result<Tuple<JsonTape, State>> scan() {
+            var expectValue = true;
+            while (failure == null) {
+                if (expectValue) {
+                    expectValue = value();
+                    continue;
+                }
+                if (depth == 0) {
+                    return Result.Success.of(Tuple.of(new JsonTape(source, Arrays.copyOf(tape, length)), input.at(offset)));
+                }
+                skipSpaces();
+                var object = tape[open[depth - 1]] >>> KIND_SHIFT == Kind.OBJECT.ordinal();
+                if (at(',')) {
+                    offset++;
+                    skipSpaces();
+                    expectValue = !object || key();
+                } else if (at(object ? '}' : ']')) {
+                    offset++;
+                    close();
+                } else {
+                    fail(object ? "',' or '}'" : "',' or ']'");
+                }
+            }
+            return failure;
+        }
+
+        private boolean value() {
+            if (source.isEnd(offset)) {
+                return fail("value");
+            }
+            var c = source.charAt(offset);
+            if (c == '{' || c == '[') {
+                var kind = c == '{' ? Kind.OBJECT : Kind.ARRAY;
+                if (depth == open.length) {
+                    open = Arrays.copyOf(open, depth * 2);
+                }
+                open[depth++] = length;
+                add(kind, 0);
+                offset++;
+                skipSpaces();
+                if (at(kind == Kind.OBJECT ? '}' : ']')) {
+                    offset++;
+                    close();
+                    return false;
+                }
+                return kind == Kind.ARRAY || key();
+            } else if (c == '"') {
+                string();
+            } else if (c == 't') {
+                literal("true", Kind.TRUE);
+            } else if (c == 'f') {
+                literal("false", Kind.FALSE);
+            } else if (c == 'n') {
+                literal("null", Kind.NULL);
+            } else {
+                number();
+            }
+            return false;
+        }
+
+        private boolean key() {
+            if (!at('"')) {
+                return fail("quoted string");
+            }
+            string();
+            skipSpaces();
+            if (failure != null || !at(':')) {
+                return fail("':'");
+            }
+            offset++;
+            skipSpaces();
+            return true;
+        }
+
+        private void close() {
+            var start = open[--depth];
+            tape[start] |= length;
+            add(Kind.END, start);
+        }
+
+        private void string() {
+            var start = offset++;
+            var escaped = 0L;
+            var high = false;
+            while (true) {
+                if (source.isEnd(offset)) {
+                    fail("closing quote");
+                    return;
+                }
+                var c = source.charAt(offset);
+                if (high && (c != '\\' || !at(offset + 1, 'u'))) {
+                    fail("low surrogate");
+                    return;
+                }
+                if (c == '"') {
+                    break;
+                } else if (c == '\\') {
+                    escaped = ESCAPED;
+                    offset++;
+                    if (at('u')) {
+                        offset++;
+                        var unit = 0;
+                        for (var i = 0; i < 4; i++, offset++) {
+                            if (source.isEnd(offset) || !CharClass.HEX_DIGIT.test(source.charAt(offset))) {
+                                fail("hex digit");
+                                return;
+                            }
+                            unit = unit << 4 | Character.digit(source.charAt(offset), 16);
+                        }
+                        if (Character.isLowSurrogate((char) unit) != high) {
+                            offset -= 6;
+                            fail(high ? "low surrogate" : "high surrogate");
+                            return;
+                        }
+                        high = Character.isHighSurrogate((char) unit);
+                    } else if (!source.isEnd(offset) && "\"\\/bfnrt".indexOf(source.charAt(offset)) >= 0) {
+                        offset++;
+                    } else {
+                        fail("escaped char");
+                        return;
+                    }
+                } else {
+                    offset++;
+                }
+            }
+            offset++;
+            add(Kind.STRING, start | escaped);
+            add(offset);
+        }
+
+        private void number() {
+            var start = offset;
+            if (at('-')) {
+                offset++;
+            }
+            if (at('0')) {
+                offset++;
+            } else if (!digits()) {
+                fail("number");
+                return;
+            }
+            if (at('.')) {
+                offset++;
+                if (!digits()) {
+                    fail("digit");
+                    return;
+                }
+            }
+            if (at('e') || at('E')) {
+                offset++;
+                if (at('+') || at('-')) {
+                    offset++;
+                }
+                if (!digits()) {
+                    fail("digit");
+                    return;
+                }
+            }
+            add(Kind.NUMBER, start);
+            add(offset);
+        }
+
+        private boolean digits() {
+            var start = offset;
+            while (!source.isEnd(offset) && source.charAt(offset) >= '0' && source.charAt(offset) <= '9') {
+                offset++;
+            }
+            return offset > start;
+        }
+
+        private void literal(String text, Kind kind) {
+            for (var i = 0; i < text.length(); i++) {
+                if (!at(text.charAt(i))) {
+                    fail(text);
+                    return;
+                }
+                offset++;
+            }
+            add(kind, offset - text.length());
+        }
+
+        private void skipSpaces() {
+            while (!source.isEnd(offset) && Character.isWhitespace(source.charAt(offset))) {
+                offset++;
+            }
+        }
+
+        private boolean at(char c) {
+            return at(offset, c);
+        }
+
+        private boolean at(long offset, char c) {
+            return !source.isEnd(offset) && source.charAt(offset) == c;
+        }
+
+        private void add(Kind kind, long payload) {
+            add((long) kind.ordinal() << KIND_SHIFT | payload);
+        }
+
+        private void add(long word) {
+            if (length == tape.length) {
+                tape = Arrays.copyOf(tape, length * 2);
+            }
+            tape[length++] = word;
+        }
+
+        private boolean fail(String label) {
+            if (failure == null) {
+                failure = Result.Failure.of(() -> label, input.at(offset));
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.geekya215.peco.json;
+
+import io.geekya215.peco.Source;
+
+final class KeyCache {
+    private static final int MAX_KEYS = 4096;
+
+    private String[] table = new String[64];
+    private int size;
+
+    String intern(Source source, long start, long end) {
+        var hash = 0;
+        for (var i = start; i < end; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        var mask = table.length - 1;
+        for (var slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            var key = table[slot];
+            if (key == null) {
+                return insert(slot, source.slice(start, end).toString());
+            } else if (key.hashCode() == hash && matches(key, source, start, end)) {
+                return key;
+            }
+        }
+    }
+
+    String intern(String text) {
+        var mask = table.length - 1;
+        for (var slot = spread(text.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            var key = table[slot];
+            if (key == null) {
+                return insert(slot, text);
+            } else if (key.equals(text)) {
+                return key;
+            }
+        }
+    }
+
+    private String insert(int slot, String key) {
+        if (size == MAX_KEYS) {
+            return key;
+        }
+        table[slot] = key;
+        if (++size * 2 > table.length) {
+            rehash();
+        }
+        return key;
+    }
+
+    private void rehash() {
+        var old = table;
+        table = new String[old.length * 2];
+        var mask = table.length - 1;
+        for (var key : old) {
+            if (key != null) {
+                var slot = spread(key.hashCode()) & mask;
+                while (table[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = key;
+            }
+        }
+    }
+
+    private static boolean matches(String key, Source source, long start, long end) {
+        if (key.length() != end - start) {
+            return false;
+        }
+        for (var i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != source.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}